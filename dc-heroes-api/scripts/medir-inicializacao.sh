@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+# Mede o tempo até a aplicação ficar pronta (do "java" até o primeiro 200 em
+# /actuator/health/readiness, que não depende dos dados carregados) em quatro modos: padrão, perfil "rapido", "rapido" + AppCDS e "rapido" + AOT + AppCDS.
+# Requer Java 17+, Maven e curl.
+#
+# Uso: scripts/medir-inicializacao.sh [repeticoes]
+set -euo pipefail
+
+REPETICOES=${1:-5}
+PORTA=8090
+URL="http://localhost:${PORTA}/actuator/health/readiness"
+
+cd "$(dirname "$0")/.."
+
+# Milissegundos até a primeira resposta 200 da readiness; a aplicação é encerrada em seguida
+medir() {
+    local log=$1
+    shift
+    local inicio
+    inicio=$(date +%s%N)
+    "$@" --server.port=${PORTA} --spring.datasource.url=jdbc:h2:mem:inicializacao \
+        --app.upload.dir="$PWD/target/uploads-inicializacao" > "$log" 2>&1 &
+    local pid=$!
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "falhou (ver $log)" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    local fim
+    fim=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo $(( (fim - inicio) / 1000000 ))
+}
+
+# Executa o modo várias vezes e mostra a média e o menor tempo
+relatar() {
+    local nome=$1
+    shift
+    local total=0 menor=0 tempo
+    for ((i = 1; i <= REPETICOES; i++)); do
+        tempo=$(medir "target/inicializacao-${nome}.log" "$@")
+        total=$((total + tempo))
+        if ((menor == 0 || tempo < menor)); then
+            menor=$tempo
+        fi
+    done
+    printf "%-22s média %6d ms   melhor %6d ms\n" "$nome" $((total / REPETICOES)) "$menor"
+}
+
+echo "=== build sem AOT, com AppCDS ==="
+mvn -q -Pcds -DskipTests package
+JAR=$(ls target/dc-heroes-api-*-exec.jar | head -n 1)
+CLASSPATH_CDS=$(cat target/classpath-cds.txt)
+
+echo "=== tempo até a readiness (${REPETICOES} execuções por modo) ==="
+relatar padrao java -jar "$JAR"
+relatar rapido java -jar "$JAR" --spring.profiles.active=rapido
+relatar rapido+cds env -C target java -XX:SharedArchiveFile=dc-heroes-api.jsa -cp "$CLASSPATH_CDS" \
+    com.dcheroes.api.DcHeroesApiApplication --spring.profiles.active=rapido
+
+mvn -q -Paot,cds -DskipTests package
+relatar rapido+aot+cds env -C target java -XX:SharedArchiveFile=dc-heroes-api.jsa -Dspring.aot.enabled=true \
+    -cp "$CLASSPATH_CDS" com.dcheroes.api.DcHeroesApiApplication --spring.profiles.active=rapido
@@ -0,0 +1,48 @@
+#!/usr/bin/env bash
+# Compara a vazão da API com o pool de threads padrão do Tomcat e com threads virtuais.
+# Requer Java 21, Maven e a ferramenta de carga "hey" (https://github.com/rakyll/hey).
+#
+# As requisições precisam chegar ao banco: o cache de respostas fica desligado (senão a medição
+# seria da cópia dos bytes em cache) e a tabela é populada com PERSONAGENS sintéticos.
+#
+# Uso: scripts/teste-carga-threads-virtuais.sh [requisicoes] [concorrencia] [personagens]
+set -euo pipefail
+
+REQUISICOES=${1:-50000}
+CONCORRENCIA=${2:-1000}
+PERSONAGENS=${3:-200000}
+PORTA=8080
+URL="http://localhost:${PORTA}/api/personagens/filtrar?afiliacao=Liga%20da%20Justi%C3%A7a&status=ATIVO&limite=20"
+
+cd "$(dirname "$0")/.."
+mvn -q -Pvirtual-threads -DskipTests package
+JAR=$(ls target/dc-heroes-api-*-exec.jar | head -n 1)
+
+executar() {
+    local perfil=$1
+    java -jar "$JAR" --server.port=${PORTA} --spring.profiles.active="${perfil}" \
+        --spring.datasource.url=jdbc:h2:mem:carga --spring.jpa.show-sql=false \
+        --app.cache.respostas.habilitado=false --app.seed.count="${PERSONAGENS}" > "target/carga-${perfil}.log" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:${PORTA}/actuator/health" > /dev/null; do sleep 0.5; done
+    # A carga inicial roda em segundo plano depois da subida; mede só com a tabela completa
+    until grep -q "Personagens sintéticos carregados" "target/carga-${perfil}.log"; do
+        if ! kill -0 "$pid" 2> /dev/null || grep -q "Falha na carga" "target/carga-${perfil}.log"; then
+            echo "A carga inicial não terminou; veja target/carga-${perfil}.log" >&2
+            kill "$pid" 2> /dev/null || true
+            exit 1
+        fi
+        sleep 1
+    done
+
+    # Aquecimento, depois a medição
+    hey -n 5000 -c 100 "$URL" > /dev/null
+    echo "=== perfil: ${perfil} (${REQUISICOES} requisições, ${CONCORRENCIA} concorrentes) ==="
+    hey -n "${REQUISICOES}" -c "${CONCORRENCIA}" "$URL" | grep -E "Requests/sec|Average|99%|Status code" -A 2
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+executar default
+executar virtual
@@ -0,0 +1,89 @@
+package com.dcheroes.api.cache;
+
+import com.dcheroes.api.event.PersonagemAlteradoEvent;
+import com.dcheroes.api.model.Personagem;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache read-through de personagens por ID e da verificação de existência por nome.
+ *
+ * As entradas são limitadas por tamanho e expiram por tempo. A invalidação acontece
+ * após o commit de cada alteração; como o Caffeine executa a carga de uma chave de forma
+ * atômica e a invalidação aguarda uma carga em andamento, um valor lido antes de uma
+ * remoção nunca volta ao cache depois dela. Os acertos, falhas e remoções ficam
+ * disponíveis nas métricas "cache.*" do actuator.
+ */
+@Component
+public class CachePersonagens {
+
+    private final Cache<Long, Personagem> porId;
+    private final Cache<String, Boolean> existenciaPorNome;
+
+    public CachePersonagens(@Value("${app.cache.personagens.tamanho-maximo:10000}") long tamanhoMaximo,
+                            @Value("${app.cache.personagens.expiracao:10m}") Duration expiracao,
+                            MeterRegistry meterRegistry) {
+        this.porId = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        this.existenciaPorNome = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, porId, "personagens-por-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, existenciaPorNome, "personagens-existencia-por-nome");
+    }
+
+    // Retorna o personagem do cache ou o carrega; ausências não são guardadas.
+    // O cache guarda uma cópia desligada do contexto de persistência da requisição
+    public Optional<Personagem> buscarPorId(Long id, Function<Long, Optional<Personagem>> carregar) {
+        return Optional.ofNullable(porId.get(id, chave -> carregar.apply(chave).map(Personagem::new).orElse(null)));
+    }
+
+    public boolean existePorNome(String nome, Predicate<String> verificar) {
+        return existenciaPorNome.get(chaveNome(nome), chave -> verificar.test(nome));
+    }
+
+    // Descarta todas as entradas; usado depois de gravações que não publicam eventos (carga inicial)
+    public void invalidarTudo() {
+        porId.invalidateAll();
+        existenciaPorNome.invalidateAll();
+    }
+
+    @Order(VersaoPersonagens.ORDEM_ANTES_DA_VERSAO)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarPersonagem(PersonagemAlteradoEvent evento) {
+        porId.invalidate(evento.getId());
+        if (evento.getAnterior() != null) {
+            invalidarNome(evento.getAnterior().getNome());
+        }
+        if (evento.getAtual() != null) {
+            invalidarNome(evento.getAtual().getNome());
+        }
+    }
+
+    private void invalidarNome(String nome) {
+        if (nome != null) {
+            existenciaPorNome.invalidate(chaveNome(nome));
+        }
+    }
+
+    private static String chaveNome(String nome) {
+        return nome.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,56 @@
+package com.dcheroes.api.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Captura os bytes das leituras de personagens marcadas pelo {@link CacheRespostaInterceptor}
+ * e os guarda no {@link CacheRespostas}, junto com a ETag da versão em que foram produzidas.
+ * Só envolve as leituras de tamanho limitado ({@link CacheRespostas#guardavel}).
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.respostas.habilitado", havingValue = "true", matchIfMissing = true)
+public class CacheRespostaFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private CacheRespostas cacheRespostas;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !CacheRespostas.guardavel(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+            CacheRespostaInterceptor.Pendente pendente =
+                    (CacheRespostaInterceptor.Pendente) request.getAttribute(CacheRespostaInterceptor.ATRIBUTO_PENDENTE);
+            if (pendente != null && wrapper.getStatus() == HttpServletResponse.SC_OK) {
+                // Uma ETag definida pelo controller (versão do personagem em GET /{id}) prevalece
+                String etag = wrapper.getHeader(HttpHeaders.ETAG);
+                if (etag == null) {
+                    etag = pendente.etag();
+                    wrapper.setHeader(HttpHeaders.ETAG, etag);
+                }
+                cacheRespostas.guardar(pendente.chave(), pendente.versao(), wrapper.getContentType(),
+                        wrapper.getContentAsByteArray(), etag);
+                wrapper.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
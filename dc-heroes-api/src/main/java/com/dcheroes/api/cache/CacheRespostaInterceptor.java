@@ -0,0 +1,89 @@
+package com.dcheroes.api.cache;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Responde leituras de personagens sem executar o controller quando possível:
+ * 304 se o If-None-Match do cliente corresponde à ETag atual (a da versão da tabela ou, em
+ * GET /{id}, a da versão do personagem, guardada com a resposta), ou os bytes já serializados
+ * se a resposta está no cache na versão atual. Roda depois do tratamento de CORS do
+ * Spring MVC, então as respostas curtas mantêm os cabeçalhos de CORS.
+ * Nos demais casos, marca a requisição para que o {@link CacheRespostaFilter} guarde a resposta,
+ * se ela tiver tamanho limitado; senão apenas define a ETag.
+ */
+@Component
+public class CacheRespostaInterceptor implements HandlerInterceptor {
+
+    static final String ATRIBUTO_PENDENTE = CacheRespostaInterceptor.class.getName() + ".pendente";
+
+    @Autowired
+    private VersaoPersonagens versaoPersonagens;
+
+    @Autowired
+    private CacheRespostas cacheRespostas;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!CacheRespostas.aplicavel(request)) {
+            return true;
+        }
+        long versao = versaoPersonagens.atual();
+        String chave = CacheRespostas.chave(request);
+        String etag = versaoPersonagens.etag(chave, versao);
+
+        if (corresponde(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+
+        CacheRespostas.RespostaSerializada resposta = cacheRespostas.buscar(chave, versao);
+        if (resposta != null) {
+            response.setHeader(HttpHeaders.ETAG, resposta.etag());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            if (corresponde(request.getHeader(HttpHeaders.IF_NONE_MATCH), resposta.etag())) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return false;
+            }
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(resposta.contentType());
+            response.setContentLength(resposta.corpo().length);
+            response.getOutputStream().write(resposta.corpo());
+            return false;
+        }
+
+        if (CacheRespostas.guardavel(request)) {
+            request.setAttribute(ATRIBUTO_PENDENTE, new Pendente(chave, versao, etag));
+        } else {
+            // Não será guardada: só a ETag, para os próximos If-None-Match
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        }
+        return true;
+    }
+
+    // Compara com a lista do If-None-Match, aceitando "*" e ETags fracas (W/)
+    private static boolean corresponde(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidata : ifNoneMatch.split(",")) {
+            String valor = candidata.trim();
+            if (valor.startsWith("W/")) {
+                valor = valor.substring(2);
+            }
+            if (valor.equals("*") || valor.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    record Pendente(String chave, long versao, String etag) {}
+}
@@ -0,0 +1,95 @@
+package com.dcheroes.api.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+
+/**
+ * Respostas JSON de leitura já serializadas, guardadas por caminho + parâmetros e
+ * associadas à versão da tabela em que foram produzidas. Uma resposta só é reutilizada
+ * se a versão ainda for a atual, então não há invalidação explícita: as entradas antigas
+ * simplesmente deixam de corresponder e saem do cache pelo limite de tamanho.
+ */
+@Component
+public class CacheRespostas {
+
+    // Rotas de leitura atendidas pelo cache; exportação e lote não passam por ele, nem a pesquisa
+    // textual, cujo índice é atualizado em segundo plano depois da mudança de versão da tabela,
+    // nem as sugestões, cuja ordem muda com a popularidade sem alterar a tabela, nem o fluxo de
+    // alterações, uma resposta contínua que não pode ser acumulada para ser guardada
+    private static final List<String> ROTAS = List.of("/api/personagens", "/api/personagens/**");
+    private static final List<String> ROTAS_EXCLUIDAS = List.of("/api/personagens/exportar", "/api/personagens/lote/**",
+            "/api/personagens/pesquisar", "/api/personagens/sugerir", "/api/personagens/alteracoes");
+
+    // Rotas cuja resposta tem tamanho limitado por natureza; nas listagens, só as páginas (com
+    // "limite" ou "cursor") são acumuladas para o cache. Uma listagem completa pode ter o tamanho
+    // da tabela: recebe a ETag, mas é escrita direto na resposta, sem passar pela memória
+    private static final List<String> ROTAS_LIMITADAS = List.of("/api/personagens/{id:[0-9]+}",
+            "/api/personagens/facetas", "/api/personagens/existe/*");
+
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    private final Cache<String, RespostaSerializada> respostas;
+    private final long tamanhoMaximoResposta;
+
+    public CacheRespostas(@Value("${app.cache.respostas.tamanho-maximo-bytes:67108864}") long tamanhoMaximoBytes,
+                          MeterRegistry meterRegistry) {
+        this.respostas = Caffeine.newBuilder()
+                .maximumWeight(tamanhoMaximoBytes)
+                .weigher((String chave, RespostaSerializada resposta) -> resposta.corpo().length + chave.length())
+                .recordStats()
+                .build();
+        // Respostas muito grandes (listagens completas) ocupariam o cache sozinhas
+        this.tamanhoMaximoResposta = tamanhoMaximoBytes / 8;
+        CaffeineCacheMetrics.monitor(meterRegistry, respostas, "respostas-personagens");
+    }
+
+    // Verifica se a requisição é uma leitura atendida pelo cache de respostas
+    public static boolean aplicavel(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return false;
+        }
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        return ROTAS.stream().anyMatch(rota -> MATCHER.match(rota, caminho))
+                && ROTAS_EXCLUIDAS.stream().noneMatch(rota -> MATCHER.match(rota, caminho));
+    }
+
+    // Verifica se a resposta, além da ETag, pode ser acumulada em memória e guardada no cache
+    public static boolean guardavel(HttpServletRequest request) {
+        if (!aplicavel(request)) {
+            return false;
+        }
+        if (request.getParameter("limite") != null || request.getParameter("cursor") != null) {
+            return true;
+        }
+        String caminho = request.getRequestURI().substring(request.getContextPath().length());
+        return ROTAS_LIMITADAS.stream().anyMatch(rota -> MATCHER.match(rota, caminho));
+    }
+
+    public static String chave(HttpServletRequest request) {
+        String parametros = request.getQueryString();
+        return parametros == null ? request.getRequestURI() : request.getRequestURI() + "?" + parametros;
+    }
+
+    // Retorna a resposta guardada apenas se ela foi produzida na versão informada
+    public RespostaSerializada buscar(String chave, long versao) {
+        RespostaSerializada resposta = respostas.getIfPresent(chave);
+        return resposta != null && resposta.versao() == versao ? resposta : null;
+    }
+
+    public void guardar(String chave, long versao, String contentType, byte[] corpo, String etag) {
+        if (corpo.length <= tamanhoMaximoResposta) {
+            respostas.put(chave, new RespostaSerializada(versao, contentType, corpo, etag));
+        }
+    }
+
+    // A ETag é a que acompanhou a resposta: a da versão da tabela ou, em GET /{id}, a do personagem
+    public record RespostaSerializada(long versao, String contentType, byte[] corpo, String etag) {}
+}
@@ -0,0 +1,49 @@
+package com.dcheroes.api.cache;
+
+import com.dcheroes.api.event.PersonagemAlteradoEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contador de versão da tabela de personagens, incrementado após o commit de cada alteração.
+ * É a base das ETags das respostas de leitura: enquanto a versão não muda, nenhuma
+ * resposta já entregue pode estar desatualizada.
+ *
+ * O incremento é o último ouvinte do evento: se viesse antes da invalidação do cache de
+ * personagens ou da atualização dos índices, uma leitura concorrente montaria a resposta com
+ * o estado antigo e o cache de respostas a guardaria sob a versão nova.
+ */
+@Component
+public class VersaoPersonagens {
+
+    // Ordem dos ouvintes que alimentam as respostas de leitura (caches e índices)
+    public static final int ORDEM_ANTES_DA_VERSAO = 0;
+
+    // Parte do instante de inicialização para não repetir ETags de uma execução anterior
+    private final AtomicLong versao = new AtomicLong(System.currentTimeMillis());
+
+    public long atual() {
+        return versao.get();
+    }
+
+    // ETag forte para a versão informada e a chave da requisição (caminho + parâmetros).
+    // GET /{id} usa em vez desta a versão do próprio personagem, aceita em If-Match
+    public String etag(String chave, long versao) {
+        return "\"" + Long.toHexString(versao) + "-" + Integer.toHexString(chave.hashCode()) + "\"";
+    }
+
+    // Muda a versão depois de gravações que não publicam eventos (carga inicial)
+    public void incrementar() {
+        versao.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarPersonagem(PersonagemAlteradoEvent evento) {
+        versao.incrementAndGet();
+    }
+}
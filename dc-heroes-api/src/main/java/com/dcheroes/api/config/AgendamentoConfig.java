@@ -0,0 +1,14 @@
+package com.dcheroes.api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita os métodos @Scheduled da aplicação: a soma dos acessos à popularidade das
+ * sugestões (IndiceSugestoes.aplicarPopularidade) e a coleta de imagens sem uso
+ * (ArmazemImagens.coletarSemUso).
+ */
+@Configuration
+@EnableScheduling
+public class AgendamentoConfig {
+}
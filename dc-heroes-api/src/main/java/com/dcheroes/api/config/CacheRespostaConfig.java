@@ -0,0 +1,22 @@
+package com.dcheroes.api.config;
+
+import com.dcheroes.api.cache.CacheRespostaInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(name = "app.cache.respostas.habilitado", havingValue = "true", matchIfMissing = true)
+public class CacheRespostaConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private CacheRespostaInterceptor cacheRespostaInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Leituras de personagens respondidas com ETag/304 ou bytes já serializados
+        registry.addInterceptor(cacheRespostaInterceptor).addPathPatterns("/api/personagens", "/api/personagens/**");
+    }
+}
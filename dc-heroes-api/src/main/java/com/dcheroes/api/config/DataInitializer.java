@@ -1,27 +1,164 @@
 package com.dcheroes.api.config;
 
+import com.dcheroes.api.cache.CachePersonagens;
+import com.dcheroes.api.cache.VersaoPersonagens;
+import com.dcheroes.api.event.FluxoAlteracoes;
 import com.dcheroes.api.model.Personagem;
 import com.dcheroes.api.model.StatusPersonagem;
 import com.dcheroes.api.repository.PersonagemRepository;
+import com.dcheroes.api.service.PersonagemLoteService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carga inicial de dados, executada em segundo plano depois que a aplicação fica pronta.
+ * Um banco vazio recebe os personagens clássicos; com app.seed.count, a tabela é completada
+ * com personagens sintéticos até essa quantidade, gerados em blocos paralelos e gravados
+ * pelo serviço de lote (INSERTs em lotes JDBC).
+ *
+ * A carga não publica um evento de alteração por personagem: com milhões de linhas, cada uma
+ * passaria pelo fluxo SSE, pelas filas dos índices e pelas listas de pendentes das cargas dos
+ * índices. Ao final (com sucesso ou não), o cache de personagens é esvaziado, a versão da tabela
+ * muda e o fluxo de alterações recebe "reinicio"; os índices e os contadores de facetas fazem a
+ * carga inicial a partir de {@link #getConclusao()}.
+ */
 @Component
-public class DataInitializer implements CommandLineRunner {
+public class DataInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
 
     @Autowired
     private PersonagemRepository personagemRepository;
 
-    @Override
-    public void run(String... args) throws Exception {
-        // Só inicializa dados se o banco estiver vazio
-        if (personagemRepository.count() == 0) {
-            initializeData();
+    @Autowired
+    private PersonagemLoteService personagemLoteService;
+
+    @Autowired
+    private CachePersonagens cachePersonagens;
+
+    @Autowired
+    private VersaoPersonagens versaoPersonagens;
+
+    @Autowired
+    private FluxoAlteracoes fluxoAlteracoes;
+
+    // Quantidade mínima de personagens na tabela; 0 mantém apenas a carga dos clássicos
+    @Value("${app.seed.count:0}")
+    private long quantidade;
+
+    @Value("${app.seed.threads:4}")
+    private int threads;
+
+    // Personagens sintéticos gerados e gravados por tarefa
+    @Value("${app.seed.tamanho-bloco:10000}")
+    private int tamanhoBloco;
+
+    private final CompletableFuture<Long> conclusao = new CompletableFuture<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciarAplicacao() {
+        Thread thread = new Thread(() -> {
+            long criados;
+            try {
+                criados = carregar();
+            } catch (RuntimeException e) {
+                log.error("Falha na carga inicial de dados", e);
+                // Uma carga interrompida pode ter gravado parte dos personagens
+                publicarCarga();
+                conclusao.completeExceptionally(e);
+                return;
+            }
+            publicarCarga();
+            conclusao.complete(criados);
+        }, "carga-inicial");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Concluído com a quantidade de personagens criados quando a carga termina, depois de caches
+    // e fluxo de alterações refletirem a carga; os índices carregam a partir daqui
+    public CompletableFuture<Long> getConclusao() {
+        return conclusao;
+    }
+
+    // Substitui os eventos por personagem que a carga não publicou. A versão muda depois do
+    // cache esvaziado, como na ordem dos ouvintes do evento de alteração
+    private void publicarCarga() {
+        cachePersonagens.invalidarTudo();
+        versaoPersonagens.incrementar();
+        fluxoAlteracoes.publicarReinicio();
+    }
+
+    private long carregar() {
+        long existentes = personagemRepository.count();
+        long criados = 0;
+        // Só inicializa os clássicos se o banco estiver vazio
+        if (existentes == 0) {
+            criados = personagemLoteService.criarSemEventos(personagensIniciais().iterator()).getSucessos();
+            existentes = criados;
+            log.info("Dados iniciais carregados: {} personagens", criados);
+        }
+        if (quantidade > existentes) {
+            criados += gerarSinteticos(existentes, quantidade - existentes);
+        }
+        return criados;
+    }
+
+    // Divide os números [inicio, inicio + total) em blocos gravados em paralelo. Cada número gera
+    // sempre o mesmo personagem, mas os blocos terminam fora de ordem: depois de uma carga
+    // interrompida, a próxima execução só completa a quantidade a partir de count(), podendo
+    // repetir personagens já gravados por blocos adiantados e pular outros
+    private long gerarSinteticos(long inicio, long total) {
+        long comeco = System.nanoTime();
+        AtomicInteger contador = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "carga-inicial-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> blocos = new ArrayList<>();
+            for (long deslocamento = 0; deslocamento < total; deslocamento += tamanhoBloco) {
+                long primeiro = inicio + deslocamento;
+                long tamanho = Math.min(tamanhoBloco, total - deslocamento);
+                blocos.add(executor.submit(() -> personagemLoteService
+                        .criarSemEventos(GeradorPersonagens.sequencia(primeiro, tamanho)).getSucessos()));
+            }
+            long criados = 0;
+            for (Future<Long> bloco : blocos) {
+                criados += bloco.get();
+            }
+            long duracaoMs = Math.max(1, (System.nanoTime() - comeco) / 1_000_000);
+            log.info("Personagens sintéticos carregados: {} em {} ms ({} por segundo)",
+                    criados, duracaoMs, criados * 1000 / duracaoMs);
+            return criados;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Carga de personagens sintéticos interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha na carga de personagens sintéticos", e.getCause());
+        } finally {
+            executor.shutdownNow();
         }
     }
 
-    private void initializeData() {
+    private List<Personagem> personagensIniciais() {
+        List<Personagem> personagens = new ArrayList<>();
+
         // Superman
         Personagem superman = new Personagem();
         superman.setNome("Superman");
@@ -34,7 +171,7 @@ public class DataInitializer implements CommandLineRunner {
         superman.setPoderes("Super força, voo, visão de raio-x, visão de calor, super velocidade, invulnerabilidade");
         superman.setDescricao("O Último Filho de Krypton, defensor da Terra e símbolo de esperança para toda a humanidade.");
         superman.setImagemUrl("https://via.placeholder.com/300x400/0066cc/ffffff?text=Superman");
-        personagemRepository.save(superman);
+        personagens.add(superman);
 
         // Batman
         Personagem batman = new Personagem();
@@ -48,7 +185,7 @@ public class DataInitializer implements CommandLineRunner {
         batman.setPoderes("Inteligência genial, artes marciais, tecnologia avançada, detetive excepcional");
         batman.setDescricao("O Cavaleiro das Trevas de Gotham City, usando sua riqueza e inteligência para combater o crime.");
         batman.setImagemUrl("https://via.placeholder.com/300x400/333333/ffffff?text=Batman");
-        personagemRepository.save(batman);
+        personagens.add(batman);
 
         // Wonder Woman
         Personagem wonderWoman = new Personagem();
@@ -62,7 +199,7 @@ public class DataInitializer implements CommandLineRunner {
         wonderWoman.setPoderes("Super força, voo, laço da verdade, bracelete indestrutível, velocidade sobre-humana");
         wonderWoman.setDescricao("Princesa Amazona e embaixadora da paz, guerreira divina com o coração de uma heroína.");
         wonderWoman.setImagemUrl("https://via.placeholder.com/300x400/cc0066/ffffff?text=Wonder+Woman");
-        personagemRepository.save(wonderWoman);
+        personagens.add(wonderWoman);
 
         // The Flash
         Personagem flash = new Personagem();
@@ -76,7 +213,7 @@ public class DataInitializer implements CommandLineRunner {
         flash.setPoderes("Super velocidade, viagem no tempo, vibração molecular, força da velocidade");
         flash.setDescricao("O homem mais rápido vivo, conectado à Força da Velocidade e protetor de Central City.");
         flash.setImagemUrl("https://via.placeholder.com/300x400/ff0000/ffffff?text=The+Flash");
-        personagemRepository.save(flash);
+        personagens.add(flash);
 
         // Green Lantern
         Personagem greenLantern = new Personagem();
@@ -90,7 +227,7 @@ public class DataInitializer implements CommandLineRunner {
         greenLantern.setPoderes("Anel do poder, construtos de energia verde, voo, força de vontade");
         greenLantern.setDescricao("Membro da Tropa dos Lanternas Verdes, protetor do setor espacial 2814.");
         greenLantern.setImagemUrl("https://via.placeholder.com/300x400/00cc00/ffffff?text=Green+Lantern");
-        personagemRepository.save(greenLantern);
+        personagens.add(greenLantern);
 
         // Aquaman
         Personagem aquaman = new Personagem();
@@ -104,7 +241,7 @@ public class DataInitializer implements CommandLineRunner {
         aquaman.setPoderes("Comunicação com vida marinha, super força, respiração aquática, tridente de Netuno");
         aquaman.setDescricao("Rei de Atlantis e protetor dos oceanos, ponte entre o mundo terrestre e aquático.");
         aquaman.setImagemUrl("https://via.placeholder.com/300x400/0099cc/ffffff?text=Aquaman");
-        personagemRepository.save(aquaman);
+        personagens.add(aquaman);
 
         // Cyborg
         Personagem cyborg = new Personagem();
@@ -118,7 +255,7 @@ public class DataInitializer implements CommandLineRunner {
         cyborg.setPoderes("Tecnologia alienígena, interface com computadores, canhões sonoros, super força");
         cyborg.setDescricao("Meio homem, meio máquina, conectado à tecnologia de Mother Box e membro vital da Liga.");
         cyborg.setImagemUrl("https://via.placeholder.com/300x400/666666/ffffff?text=Cyborg");
-        personagemRepository.save(cyborg);
+        personagens.add(cyborg);
 
         // Green Arrow
         Personagem greenArrow = new Personagem();
@@ -132,7 +269,7 @@ public class DataInitializer implements CommandLineRunner {
         greenArrow.setPoderes("Arqueiro excepcional, flechas especializadas, artes marciais, acrobacia");
         greenArrow.setDescricao("O Arqueiro Esmeralda, defensor dos oprimidos e justiceiro social de Star City.");
         greenArrow.setImagemUrl("https://via.placeholder.com/300x400/009900/ffffff?text=Green+Arrow");
-        personagemRepository.save(greenArrow);
+        personagens.add(greenArrow);
 
         // Martian Manhunter
         Personagem martianManhunter = new Personagem();
@@ -146,7 +283,7 @@ public class DataInitializer implements CommandLineRunner {
         martianManhunter.setPoderes("Telepatia, mudança de forma, invisibilidade, intangibilidade, super força, voo");
         martianManhunter.setDescricao("Último Marciano Verde, detetive e coração emocional da Liga da Justiça.");
         martianManhunter.setImagemUrl("https://via.placeholder.com/300x400/990000/ffffff?text=Martian+Manhunter");
-        personagemRepository.save(martianManhunter);
+        personagens.add(martianManhunter);
 
         // Shazam
         Personagem shazam = new Personagem();
@@ -160,9 +297,8 @@ public class DataInitializer implements CommandLineRunner {
         shazam.setPoderes("Força de Hércules, velocidade de Mercúrio, resistência de Atlas, poder de Zeus, coragem de Aquiles, sabedoria de Salomão");
         shazam.setDescricao("Jovem herói com o poder dos deuses antigos, transformando-se ao gritar 'Shazam!'");
         shazam.setImagemUrl("https://via.placeholder.com/300x400/ffcc00/ffffff?text=Shazam");
-        personagemRepository.save(shazam);
+        personagens.add(shazam);
 
-        System.out.println("✅ Dados iniciais carregados com sucesso! Total de personagens: " + personagemRepository.count());
+        return personagens;
     }
 }
-
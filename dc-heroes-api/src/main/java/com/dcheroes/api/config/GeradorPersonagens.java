@@ -0,0 +1,93 @@
+package com.dcheroes.api.config;
+
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.model.StatusPersonagem;
+import com.dcheroes.api.model.enums.Alinhamento;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Gera personagens sintéticos determinísticos (mesmo número, mesmos dados) para popular
+ * bancos de teste de carga (app.seed.count) e os bancos dos benchmarks. Os valores variam
+ * como no catálogo real: afiliações e status repetidos, textos de tamanhos diferentes e
+ * alguns campos opcionais vazios.
+ */
+public final class GeradorPersonagens {
+
+    public static final List<String> AFILIACOES = List.of("Liga da Justiça", "Jovens Titãs",
+            "Tropa dos Lanternas Verdes", "Legião do Mal", "Esquadrão Suicida", "Sociedade da Justiça",
+            "Patrulha do Destino");
+    private static final String[] ORIGENS = {"Krypton", "Gotham City", "Metrópolis", "Themyscira", "Atlantis",
+            "Central City", "Star City", "Coast City", "Apokolips", "Marte"};
+    private static final String[] PODERES = {"super força", "voo", "visão de calor", "super velocidade",
+            "invulnerabilidade", "telepatia", "artes marciais", "inteligência genial", "mudança de forma",
+            "manipulação de energia", "respiração aquática", "fator de cura"};
+    private static final String[] PREFIXOS = {"Capitão", "Doutor", "Senhor", "Lady", "Super", "Ultra", "Sombra"};
+    private static final String[] SUFIXOS = {"Trovão", "Noite", "Estrela", "Aço", "Relâmpago", "Fênix", "Tempestade"};
+    private static final String[] FRASES = {"Protege a cidade desde a juventude.",
+            "Já enfrentou ameaças de outras dimensões.", "Mantém a identidade em segredo até dos aliados.",
+            "Treinou por anos antes da primeira aparição pública.", "É temido pelos criminosos de toda a região.",
+            "Perdeu a família em um acidente misterioso.", "Lidera uma equipe em missões pelo multiverso."};
+    private static final String[] NOMES = {"Clark", "Bruce", "Diana", "Barry", "Hal", "Arthur", "Victor", "Oliver"};
+    private static final String[] SOBRENOMES = {"Kent", "Wayne", "Prince", "Allen", "Jordan", "Curry", "Stone", "Queen"};
+
+    private GeradorPersonagens() {}
+
+    public static Personagem gerar(long numero) {
+        SplittableRandom aleatorio = new SplittableRandom(numero);
+        Personagem personagem = new Personagem();
+        personagem.setNome(escolher(aleatorio, PREFIXOS) + " " + escolher(aleatorio, SUFIXOS) + " " + numero);
+        // Cerca de 1 em 10 sem identidade civil conhecida
+        if (aleatorio.nextInt(10) > 0) {
+            personagem.setNomeReal(escolher(aleatorio, NOMES) + " " + escolher(aleatorio, SOBRENOMES));
+        }
+        personagem.setOrigem(escolher(aleatorio, ORIGENS));
+        personagem.setUniverso("Terra-" + aleatorio.nextInt(1, 53));
+        personagem.setAfiliacao(AFILIACOES.get(aleatorio.nextInt(AFILIACOES.size())));
+        personagem.setPrimeiraAparicao(String.valueOf(aleatorio.nextInt(1938, 2025)));
+        personagem.setStatus(StatusPersonagem.values()[aleatorio.nextInt(StatusPersonagem.values().length)]);
+        personagem.setAlinhamento(Alinhamento.values()[aleatorio.nextInt(Alinhamento.values().length)]);
+        personagem.setPoderes(escolher(aleatorio, PODERES) + ", " + escolher(aleatorio, PODERES) + ", "
+                + escolher(aleatorio, PODERES));
+        // Descrições de uma a seis frases, como no catálogo real (de poucas dezenas a centenas de caracteres)
+        StringBuilder descricao = new StringBuilder("Personagem sintético número ").append(numero)
+                .append(" vindo de ").append(personagem.getOrigem())
+                .append(", conhecido por ").append(personagem.getPoderes()).append('.');
+        for (int frases = aleatorio.nextInt(6); frases > 0; frases--) {
+            descricao.append(' ').append(escolher(aleatorio, FRASES));
+        }
+        personagem.setDescricao(descricao.toString());
+        // Cerca de 1 em 5 sem imagem
+        if (aleatorio.nextInt(5) > 0) {
+            personagem.setImagemUrl("/uploads/sintetico-" + (numero % 100) + ".png");
+        }
+        return personagem;
+    }
+
+    // Sequência de "quantidade" personagens a partir do número informado, gerados sob demanda
+    public static Iterator<Personagem> sequencia(long inicio, long quantidade) {
+        return new Iterator<>() {
+            private long proximo = inicio;
+
+            @Override
+            public boolean hasNext() {
+                return proximo < inicio + quantidade;
+            }
+
+            @Override
+            public Personagem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return gerar(proximo++);
+            }
+        };
+    }
+
+    private static String escolher(SplittableRandom aleatorio, String[] opcoes) {
+        return opcoes[aleatorio.nextInt(opcoes.length)];
+    }
+}
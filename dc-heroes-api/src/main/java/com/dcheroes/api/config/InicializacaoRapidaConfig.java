@@ -0,0 +1,25 @@
+package com.dcheroes.api.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Com spring.main.lazy-initialization=true (perfil "rapido"), mantém a criação antecipada dos
+ * beans da própria aplicação: caches, índice de trigramas, serviços e, pelas dependências deles,
+ * o DataSource, as migrações e o Hibernate. O que fica preguiçoso é a infraestrutura que não
+ * participa das requisições comuns (springdoc, endpoints do actuator etc.).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.inicializacao.rapida", havingValue = "true")
+public class InicializacaoRapidaConfig {
+
+    private static final String PACOTE_APLICACAO = "com.dcheroes.";
+
+    // Método estático: o filtro é consultado antes da criação dos demais beans
+    @Bean
+    public static LazyInitializationExcludeFilter beansDaAplicacaoAntecipados() {
+        return (beanName, definicao, tipo) -> tipo != null && tipo.getName().startsWith(PACOTE_APLICACAO);
+    }
+}
@@ -0,0 +1,84 @@
+package com.dcheroes.api.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Distribuição da quantidade de itens retornados por método de repositório
+ * ("spring.data.repository.resultados", com as tags repository e method). O tempo de cada
+ * método já é medido pelo Spring Boot em "spring.data.repository.invocations"; aqui só se
+ * acrescenta o tamanho dos resultados de listas e páginas, para identificar consultas que
+ * trazem mais linhas do que deveriam.
+ */
+@Configuration
+public class MetricasRepositorioConfig {
+
+    // Método estático: o post-processor precisa existir antes dos repositórios
+    @Bean
+    public static BeanPostProcessor metricasResultadosRepositorio(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> fabrica) {
+                    fabrica.addRepositoryFactoryCustomizer(repositoryFactory ->
+                            repositoryFactory.addRepositoryProxyPostProcessor((proxy, informacoes) ->
+                                    proxy.addAdvice(new TamanhoResultados(meterRegistry,
+                                            informacoes.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Interceptador instalado no proxy de cada repositório; os medidores ficam guardados por
+    // método, de modo que cada chamada custa só uma consulta ao mapa e um record()
+    private static class TamanhoResultados implements MethodInterceptor {
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final String repositorio;
+        private final Map<Method, DistributionSummary> medidores = new ConcurrentHashMap<>();
+
+        private TamanhoResultados(ObjectProvider<MeterRegistry> meterRegistry, String repositorio) {
+            this.meterRegistry = meterRegistry;
+            this.repositorio = repositorio;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocacao) throws Throwable {
+            Object resultado = invocacao.proceed();
+            int tamanho;
+            if (resultado instanceof Collection<?> colecao) {
+                tamanho = colecao.size();
+            } else if (resultado instanceof Slice<?> pagina) {
+                tamanho = pagina.getNumberOfElements();
+            } else {
+                return resultado;
+            }
+            medidores.computeIfAbsent(invocacao.getMethod(), metodo -> DistributionSummary
+                            .builder("spring.data.repository.resultados")
+                            .description("Quantidade de itens retornados por consulta")
+                            .tag("repository", repositorio)
+                            .tag("method", metodo.getName())
+                            .publishPercentileHistogram()
+                            .minimumExpectedValue(1.0)
+                            .maximumExpectedValue(100_000.0)
+                            .register(meterRegistry.getObject()))
+                    .record(tamanho);
+            return resultado;
+        }
+    }
+}
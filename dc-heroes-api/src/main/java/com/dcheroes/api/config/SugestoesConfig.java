@@ -0,0 +1,23 @@
+package com.dcheroes.api.config;
+
+import com.dcheroes.api.search.RegistroAcessosInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class SugestoesConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private RegistroAcessosInterceptor registroAcessosInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Popularidade das sugestões: antes do cache de respostas, que pode encerrar a requisição
+        registry.addInterceptor(registroAcessosInterceptor)
+                .addPathPatterns("/api/personagens/*")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
@@ -0,0 +1,54 @@
+package com.dcheroes.api.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuração do modo de threads virtuais (spring.threads.virtual.enabled=true, perfil "virtual").
+ * O Spring Boot já executa as requisições do Tomcat e as tarefas assíncronas em threads
+ * virtuais; aqui o DataSource é envolvido pelo {@link DataSourceLimitado}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ThreadsVirtuaisConfig {
+
+    // Método estático: o post-processor precisa existir antes dos demais beans
+    @Bean
+    public static BeanPostProcessor limitadorConexoes(Environment environment) {
+        int limite = environment.getProperty("app.db.limite-concorrencia", Integer.class, 20);
+        Duration esperaMaxima = environment.getProperty("app.db.espera-maxima", Duration.class, Duration.ofSeconds(5));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceLimitado)) {
+                    return new DataSourceLimitado(dataSource, limite, esperaMaxima);
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Fila do semáforo: com threads virtuais, é aqui (e não no Hikari) que as requisições esperam pelo banco
+    @Bean
+    public MeterBinder metricasLimiteConexoes(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof DataSourceLimitado limitado) {
+                Gauge.builder("db.limite.aguardando", limitado, DataSourceLimitado::getThreadsAguardando)
+                        .description("Threads aguardando permissão para acessar o banco")
+                        .register(registry);
+                Gauge.builder("db.limite.disponiveis", limitado, DataSourceLimitado::getPermissoesDisponiveis)
+                        .description("Permissões de acesso ao banco disponíveis")
+                        .register(registry);
+            }
+        };
+    }
+}
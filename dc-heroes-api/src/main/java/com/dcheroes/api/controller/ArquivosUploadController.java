@@ -0,0 +1,66 @@
+package com.dcheroes.api.controller;
+
+import com.dcheroes.api.imagem.ProcessadorImagens;
+import com.dcheroes.api.imagem.ServidorArquivos;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Serve os arquivos enviados nas URLs devolvidas pelo upload ({@code /uploads/...}),
+ * com cache imutável de longa duração, requisições condicionais e Range.
+ */
+@RestController
+@Tag(name = "Upload", description = "Operações de upload de arquivos")
+@CrossOrigin(origins = "*")
+public class ArquivosUploadController {
+
+    @Value("${app.upload.dir:uploads}")
+    private String uploadDir;
+
+    @Autowired
+    private ServidorArquivos servidorArquivos;
+
+    @Autowired
+    private ProcessadorImagens processadorImagens;
+
+    @RequestMapping(value = {"/uploads/{*caminho}", "/api/uploads/{*caminho}"},
+            method = {RequestMethod.GET, RequestMethod.HEAD})
+    @Operation(summary = "Arquivo enviado", description = "Entrega um arquivo de upload; em imagens, ?w= retorna a variante redimensionada")
+    public void obterArquivo(
+            @PathVariable String caminho,
+            @Parameter(description = "Largura desejada em pixels")
+            @RequestParam(required = false) Integer w,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Path raiz = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path arquivo = raiz.resolve(caminho.substring(1)).normalize();
+        // Arquivos ocultos são uploads ainda em andamento
+        if (!arquivo.startsWith(raiz) || arquivo.equals(raiz) || arquivo.getFileName().toString().startsWith(".")) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        servirImagem(arquivo, w, servidorArquivos, processadorImagens, request, response);
+    }
+
+    // Entrega a imagem ou a variante pedida; se a variante não pôde ser gerada a tempo, o original
+    // vai com cache curto para que a variante seja pedida de novo em seguida
+    static void servirImagem(Path arquivo, Integer w, ServidorArquivos servidorArquivos,
+                             ProcessadorImagens processadorImagens,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path entregue = arquivo;
+        if (w != null && w > 0 && servidorArquivos.existe(arquivo)) {
+            entregue = processadorImagens.obterVariante(arquivo, w);
+        }
+        servidorArquivos.servir(entregue, w == null || !entregue.equals(arquivo), request, response);
+    }
+}
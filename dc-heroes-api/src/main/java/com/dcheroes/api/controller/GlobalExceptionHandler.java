@@ -1,64 +1,128 @@
 package com.dcheroes.api.controller;
 
+import com.dcheroes.api.exception.ConflitoVersaoException;
+import com.dcheroes.api.exception.IndiceIndisponivelException;
+import com.dcheroes.api.exception.RecursoNaoEncontradoException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.validation.FieldError;
+import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Respostas de erro no formato "problem details" (RFC 7807, application/problem+json).
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
-    
-    // Handler para RuntimeException, que é lançada quando um recurso não é encontrado
-    // ou quando há algum erro de execução não tratado.
-    @ExceptionHandler(RuntimeException.class)
-    public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex) {
-        Map<String, Object> error = new HashMap<>();
-        error.put("timestamp", LocalDateTime.now());
-        error.put("status", HttpStatus.NOT_FOUND.value());
-        error.put("error", "Recurso não encontrado");
-        error.put("message", ex.getMessage());
-        
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+
+    // Configurado como o do Spring MVC (inclui o mixin que serializa ProblemDetail conforme a RFC)
+    private static final ObjectMapper MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    // Respostas 404 já serializadas, uma por tipo de recurso. O corpo não varia com a requisição,
+    // então cada uma é montada uma vez e reutilizada (os cabeçalhos do ResponseEntity são imutáveis)
+    private final Map<Class<?>, ResponseEntity<byte[]>> respostasNaoEncontrado = new ConcurrentHashMap<>();
+
+    // Handler para RecursoNaoEncontradoException (e subclasses), lançada quando um recurso não existe
+    @ExceptionHandler(RecursoNaoEncontradoException.class)
+    public ResponseEntity<byte[]> handleRecursoNaoEncontradoException(RecursoNaoEncontradoException ex) {
+        return respostasNaoEncontrado.computeIfAbsent(ex.getClass(), tipo -> respostaFixa(
+                ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getDescricao()),
+                "Recurso não encontrado"));
+    }
+
+    // Handler para IllegalArgumentException, lançada para parâmetros inválidos
+    // (por exemplo, um cursor de paginação que não foi gerado pela API)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ProblemDetail handleIllegalArgumentException(IllegalArgumentException ex) {
+        return problema(HttpStatus.BAD_REQUEST, "Requisição inválida", ex.getMessage());
+    }
+
+    // Handler para ConflitoVersaoException, lançada quando a versão informada em If-Match
+    // não é mais a atual (ou o registro mudou durante a atualização parcial)
+    @ExceptionHandler(ConflitoVersaoException.class)
+    public ProblemDetail handleConflitoVersaoException(ConflitoVersaoException ex) {
+        ProblemDetail problema = problema(HttpStatus.PRECONDITION_FAILED, "Versão desatualizada", ex.getMessage());
+        problema.setProperty("versaoAtual", ex.getVersaoAtual());
+        return problema;
+    }
+
+    // Handler para OptimisticLockingFailureException, lançada pelo Hibernate quando o
+    // registro foi alterado por outra transação entre a leitura e o UPDATE
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ProblemDetail handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return problema(HttpStatus.CONFLICT, "Conflito de atualização",
+                "O registro foi alterado por outra requisição; leia-o novamente e repita a alteração");
+    }
+
+    // Handler para IndiceIndisponivelException, lançada enquanto o índice de pesquisa é carregado
+    @ExceptionHandler(IndiceIndisponivelException.class)
+    public ResponseEntity<ProblemDetail> handleIndiceIndisponivelException(IndiceIndisponivelException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(problema(HttpStatus.SERVICE_UNAVAILABLE, "Serviço indisponível", ex.getMessage()));
     }
-    
+
     // Handler para MethodArgumentNotValidException, que é lançada quando há erros de validação
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
-        Map<String, Object> error = new HashMap<>();
+    public ProblemDetail handleValidationExceptions(MethodArgumentNotValidException ex) {
         Map<String, String> errors = new HashMap<>();
-        
+
         ex.getBindingResult().getAllErrors().forEach((err) -> {
             String fieldName = ((FieldError) err).getField();
             String errorMessage = err.getDefaultMessage();
             errors.put(fieldName, errorMessage);
         });
-        
-        // Preenchendo o mapa de erro com informações adicionais
-        error.put("timestamp", LocalDateTime.now());
-        error.put("status", HttpStatus.BAD_REQUEST.value());
-        error.put("error", "Erro de validação");
-        error.put("message", "Dados inválidos fornecidos");
-        error.put("validationErrors", errors);
-        
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+
+        ProblemDetail problema = problema(HttpStatus.BAD_REQUEST, "Erro de validação", "Dados inválidos fornecidos");
+        problema.setProperty("validationErrors", errors);
+        return problema;
     }
-    
-    // Handler para erros genéricos
+
+    // Handler para corpo ilegível e parâmetros de tipo errado (ex.: status inexistente no caminho)
+    @ExceptionHandler({HttpMessageNotReadableException.class, TypeMismatchException.class})
+    public ProblemDetail handleRequisicaoIlegivel(Exception ex) {
+        return problema(HttpStatus.BAD_REQUEST, "Requisição inválida", "Corpo ou parâmetro da requisição inválido");
+    }
+
+    // Handler para erros genéricos. As exceções do próprio Spring MVC (parâmetro ausente,
+    // método não suportado...) já trazem o status e o corpo adequados
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
-        Map<String, Object> error = new HashMap<>();
-        error.put("timestamp", LocalDateTime.now());
-        error.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        error.put("error", "Erro interno do servidor");
-        error.put("message", "Ocorreu um erro inesperado");
-        
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+    public ProblemDetail handleGenericException(Exception ex) {
+        if (ex instanceof ErrorResponse erro) {
+            return erro.getBody();
+        }
+        return problema(HttpStatus.INTERNAL_SERVER_ERROR, "Erro interno do servidor", "Ocorreu um erro inesperado");
+    }
+
+    private static ProblemDetail problema(HttpStatus status, String titulo, String detalhe) {
+        ProblemDetail problema = ProblemDetail.forStatusAndDetail(status, detalhe);
+        problema.setTitle(titulo);
+        return problema;
     }
-}
 
+    private static ResponseEntity<byte[]> respostaFixa(ProblemDetail problema, String titulo) {
+        problema.setTitle(titulo);
+        try {
+            return ResponseEntity.status(problema.getStatus())
+                    .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                    .body(MAPPER.writeValueAsBytes(problema));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a resposta de erro", e);
+        }
+    }
+}
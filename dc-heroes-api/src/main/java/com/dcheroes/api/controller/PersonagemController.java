@@ -1,8 +1,19 @@
 package com.dcheroes.api.controller;
 
+import com.dcheroes.api.exception.ConflitoVersaoException;
 import com.dcheroes.api.model.Personagem;
 import com.dcheroes.api.model.StatusPersonagem;
+import com.dcheroes.api.model.dto.AlteracaoPersonagem;
+import com.dcheroes.api.model.dto.ItemPesquisa;
+import com.dcheroes.api.model.dto.PaginaCursor;
+import com.dcheroes.api.model.dto.ResultadoFacetas;
+import com.dcheroes.api.model.dto.Sugestao;
+import com.dcheroes.api.model.enums.CampoPersonagem;
+import com.dcheroes.api.model.enums.DimensaoFaceta;
+import com.dcheroes.api.service.FacetasService;
+import com.dcheroes.api.service.FiltroPersonagens;
 import com.dcheroes.api.service.PersonagemService;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,12 +23,20 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/personagens")
@@ -28,18 +47,48 @@ public class PersonagemController {
     @Autowired
     private PersonagemService personagemService;
     
-    // Lista todos os personagens cadastrados
-    @Operation(summary = "Listar todos os personagens", description = "Retorna uma lista com todos os personagens cadastrados")
+    @Autowired
+    private FacetasService facetasService;
+    
+    // Lista todos os personagens cadastrados.
+    // Com "cursor" ou "limite" informados, responde uma página paginada por cursor (keyset)
+    @Operation(summary = "Listar todos os personagens", description = "Retorna uma lista com todos os personagens cadastrados. " +
+            "Informe 'limite' e/ou 'cursor' para paginação por cursor e 'fields' para receber apenas alguns campos")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lista de personagens retornada com sucesso",
-                content = @Content(mediaType = "application/json", schema = @Schema(implementation = Personagem.class)))
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = Personagem.class))),
+        @ApiResponse(responseCode = "400", description = "Cursor ou campo inválido")
     })
     @GetMapping
-    public ResponseEntity<List<Personagem>> listarTodos() {
+    public ResponseEntity<?> listarTodos(
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade máxima de itens por página (opcional)") @RequestParam(required = false) Integer limite,
+            @Parameter(description = "Campos a retornar, separados por vírgula (opcional, ex.: id,nome,alinhamento,imagemUrl)")
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listarCampos(fields, new FiltroPersonagens(null, null, null), cursor, limite);
+        }
+        if (paginado(cursor, limite)) {
+            return ResponseEntity.ok(personagemService.listarPagina(cursor, limite));
+        }
         List<Personagem> personagens = personagemService.listarTodos();
         return ResponseEntity.ok(personagens);
     }
     
+    // Exporta o catálogo completo em NDJSON, transmitindo as linhas à medida que são lidas do banco
+    @Operation(summary = "Exportar personagens", description = "Exporta todos os personagens em NDJSON (um objeto JSON por linha), em streaming")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportação iniciada",
+                content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = Personagem.class)))
+    })
+    @GetMapping(value = "/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar() {
+        StreamingResponseBody corpo = saida -> personagemService.exportarNdjson(saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+    
     // Busca um personagem específico pelo ID
     @Operation(summary = "Buscar personagem por ID", description = "Retorna um personagem específico pelo seu ID")
     @ApiResponses(value = {
@@ -50,8 +99,10 @@ public class PersonagemController {
     @GetMapping("/{id}")
     public ResponseEntity<Personagem> buscarPorId(
             @Parameter(description = "ID do personagem", required = true) @PathVariable Long id) {
+        // A ETag é a versão do personagem, a mesma aceita em If-Match no PUT e no PATCH;
+        // com If-None-Match igual a ela, o Spring responde 304 sem corpo
         Optional<Personagem> personagem = personagemService.buscarPorId(id);
-        return personagem.map(ResponseEntity::ok)
+        return personagem.map(p -> ResponseEntity.ok().eTag(etagDaVersao(p.getVersao())).body(p))
                          .orElse(ResponseEntity.notFound().build());
     }
     
@@ -80,21 +131,52 @@ public class PersonagemController {
         @ApiResponse(responseCode = "200", description = "Personagem atualizado com sucesso",
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = Personagem.class))),
         @ApiResponse(responseCode = "404", description = "Personagem não encontrado"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos fornecidos"),
+        @ApiResponse(responseCode = "412", description = "A versão informada em If-Match não é mais a atual")
     })
     @PutMapping("/{id}")
     public ResponseEntity<Personagem> atualizar(
             @Parameter(description = "ID do personagem", required = true) @PathVariable Long id,
+            @Parameter(description = "ETag retornada pelo GET, com a versão esperada do personagem (opcional, ex.: \"3\")")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Parameter(description = "Dados atualizados do personagem", required = true)
             @Valid @RequestBody Personagem personagem) {
+        Long versaoEsperada = versaoDoIfMatch(ifMatch);
+        Personagem personagemAtualizado;
         try {
-            Personagem personagemAtualizado = personagemService.atualizar(id, personagem);
-            return ResponseEntity.ok(personagemAtualizado);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            personagemAtualizado = personagemService.atualizar(id, personagem, versaoEsperada);
+        } catch (OptimisticLockingFailureException e) {
+            throw conflitoNaGravacao(id, versaoEsperada, e);
+        }
+        return ResponseEntity.ok().eTag(etagDaVersao(personagemAtualizado.getVersao())).body(personagemAtualizado);
+    }
+    
+    // Atualiza parcialmente um personagem (JSON Merge Patch)
+    @Operation(summary = "Atualizar parcialmente personagem",
+            description = "Aplica um JSON Merge Patch (RFC 7386): apenas os campos enviados são alterados e null limpa o campo. " +
+                    "Com If-Match, a alteração só é aplicada se a versão do personagem ainda for a informada")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Personagem atualizado com sucesso",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = Personagem.class))),
+        @ApiResponse(responseCode = "400", description = "Patch inválido ou dados resultantes inválidos"),
+        @ApiResponse(responseCode = "404", description = "Personagem não encontrado"),
+        @ApiResponse(responseCode = "412", description = "A versão informada em If-Match não é mais a atual")
+    })
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Personagem> atualizarParcialmente(
+            @Parameter(description = "ID do personagem", required = true) @PathVariable Long id,
+            @Parameter(description = "ETag retornada pelo GET, com a versão esperada do personagem (opcional, ex.: \"3\")")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(description = "Campos a alterar", required = true)
+            @RequestBody JsonNode patch) {
+        Long versaoEsperada = versaoDoIfMatch(ifMatch);
+        Personagem personagemAtualizado;
+        try {
+            personagemAtualizado = personagemService.aplicarPatch(id, patch, versaoEsperada);
+        } catch (OptimisticLockingFailureException e) {
+            throw conflitoNaGravacao(id, versaoEsperada, e);
         }
+        return ResponseEntity.ok().eTag(etagDaVersao(personagemAtualizado.getVersao())).body(personagemAtualizado);
     }
     
     // Deleta um personagem pelo ID
@@ -106,12 +188,8 @@ public class PersonagemController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletar(
             @Parameter(description = "ID do personagem", required = true) @PathVariable Long id) {
-        try {
-            personagemService.deletar(id);
-            return ResponseEntity.noContent().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+        personagemService.deletar(id);
+        return ResponseEntity.noContent().build();
     }
     
     // Busca personagens por nome
@@ -121,9 +199,19 @@ public class PersonagemController {
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = Personagem.class)))
     })
     @GetMapping("/buscar")
-    public ResponseEntity<List<Personagem>> buscarPorNome(
+    public ResponseEntity<?> buscarPorNome(
             @Parameter(description = "Nome ou parte do nome do personagem", required = true)
-            @RequestParam String nome) {
+            @RequestParam String nome,
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade máxima de itens por página (opcional)") @RequestParam(required = false) Integer limite,
+            @Parameter(description = "Campos a retornar, separados por vírgula (opcional, ex.: id,nome,alinhamento,imagemUrl)")
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listarCampos(fields, new FiltroPersonagens(nome, null, null), cursor, limite);
+        }
+        if (paginado(cursor, limite)) {
+            return ResponseEntity.ok(personagemService.buscarPorNomePagina(nome, cursor, limite));
+        }
         List<Personagem> personagens = personagemService.buscarPorNome(nome);
         return ResponseEntity.ok(personagens);
     }
@@ -131,8 +219,18 @@ public class PersonagemController {
     // Busca personagens por afiliação
     @Operation(summary = "Buscar personagens por afiliação", description = "Busca personagens de uma afiliação específica")
     @GetMapping("/afiliacao/{afiliacao}")
-    public ResponseEntity<List<Personagem>> buscarPorAfiliacao(
-            @Parameter(description = "Afiliação do personagem", required = true) @PathVariable String afiliacao) {
+    public ResponseEntity<?> buscarPorAfiliacao(
+            @Parameter(description = "Afiliação do personagem", required = true) @PathVariable String afiliacao,
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade máxima de itens por página (opcional)") @RequestParam(required = false) Integer limite,
+            @Parameter(description = "Campos a retornar, separados por vírgula (opcional, ex.: id,nome,alinhamento,imagemUrl)")
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listarCampos(fields, new FiltroPersonagens(null, afiliacao, null), cursor, limite);
+        }
+        if (paginado(cursor, limite)) {
+            return ResponseEntity.ok(personagemService.buscarPorAfiliacaoPagina(afiliacao, cursor, limite));
+        }
         List<Personagem> personagens = personagemService.buscarPorAfiliacao(afiliacao);
         return ResponseEntity.ok(personagens);
     }
@@ -140,8 +238,18 @@ public class PersonagemController {
     // Busca personagens por status
     @Operation(summary = "Buscar personagens por status", description = "Busca personagens com status específico")
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Personagem>> buscarPorStatus(
-            @Parameter(description = "Status do personagem", required = true) @PathVariable StatusPersonagem status) {
+    public ResponseEntity<?> buscarPorStatus(
+            @Parameter(description = "Status do personagem", required = true) @PathVariable StatusPersonagem status,
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade máxima de itens por página (opcional)") @RequestParam(required = false) Integer limite,
+            @Parameter(description = "Campos a retornar, separados por vírgula (opcional, ex.: id,nome,alinhamento,imagemUrl)")
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listarCampos(fields, new FiltroPersonagens(null, null, status), cursor, limite);
+        }
+        if (paginado(cursor, limite)) {
+            return ResponseEntity.ok(personagemService.buscarPorStatusPagina(status, cursor, limite));
+        }
         List<Personagem> personagens = personagemService.buscarPorStatus(status);
         return ResponseEntity.ok(personagens);
     }
@@ -149,9 +257,19 @@ public class PersonagemController {
     // Busca personagens por nome real
     @Operation(summary = "Buscar personagens por nome real", description = "Busca personagens pelo nome real")
     @GetMapping("/nome-real")
-    public ResponseEntity<List<Personagem>> buscarPorNomeReal(
+    public ResponseEntity<?> buscarPorNomeReal(
             @Parameter(description = "Nome real ou parte do nome real", required = true)
-            @RequestParam String nomeReal) {
+            @RequestParam String nomeReal,
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade máxima de itens por página (opcional)") @RequestParam(required = false) Integer limite,
+            @Parameter(description = "Campos a retornar, separados por vírgula (opcional, ex.: id,nome,alinhamento,imagemUrl)")
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listarCampos(fields, FiltroPersonagens.porNomeReal(nomeReal), cursor, limite);
+        }
+        if (paginado(cursor, limite)) {
+            return ResponseEntity.ok(personagemService.buscarPorNomeRealPagina(nomeReal, cursor, limite));
+        }
         List<Personagem> personagens = personagemService.buscarPorNomeReal(nomeReal);
         return ResponseEntity.ok(personagens);
     }
@@ -159,24 +277,158 @@ public class PersonagemController {
     // Busca personagens por local de origem
     @Operation(summary = "Buscar personagens por origem", description = "Busca personagens por local de origem")
     @GetMapping("/origem")
-    public ResponseEntity<List<Personagem>> buscarPorOrigem(
+    public ResponseEntity<?> buscarPorOrigem(
             @Parameter(description = "Origem ou parte da origem", required = true)
-            @RequestParam String origem) {
+            @RequestParam String origem,
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade máxima de itens por página (opcional)") @RequestParam(required = false) Integer limite,
+            @Parameter(description = "Campos a retornar, separados por vírgula (opcional, ex.: id,nome,alinhamento,imagemUrl)")
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listarCampos(fields, FiltroPersonagens.porOrigem(origem), cursor, limite);
+        }
+        if (paginado(cursor, limite)) {
+            return ResponseEntity.ok(personagemService.buscarPorOrigemPagina(origem, cursor, limite));
+        }
         List<Personagem> personagens = personagemService.buscarPorOrigem(origem);
         return ResponseEntity.ok(personagens);
     }
     
+    // Busca personagens que têm o poder informado
+    @Operation(summary = "Buscar personagens por poder", description = "Busca personagens que têm o poder (ex.: voo), sem diferenciar acentos ou maiúsculas")
+    @GetMapping("/poderes/{poder}")
+    public ResponseEntity<?> buscarPorPoder(
+            @Parameter(description = "Nome do poder", required = true, example = "voo") @PathVariable String poder,
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade máxima de itens por página (opcional)") @RequestParam(required = false) Integer limite) {
+        if (paginado(cursor, limite)) {
+            return ResponseEntity.ok(personagemService.buscarPorPoderesPagina(List.of(poder), true, cursor, limite));
+        }
+        return ResponseEntity.ok(personagemService.buscarPorPoderes(List.of(poder), true));
+    }
+    
+    // Busca personagens por vários poderes: com todos eles (modo=todos) ou com ao menos um (modo=algum)
+    @Operation(summary = "Buscar personagens por vários poderes",
+            description = "Busca personagens que têm todos os poderes informados (modo=todos, padrão) ou ao menos um deles (modo=algum)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Personagens encontrados"),
+        @ApiResponse(responseCode = "400", description = "Modo ou cursor inválido")
+    })
+    @GetMapping("/poderes")
+    public ResponseEntity<?> buscarPorPoderes(
+            @Parameter(description = "Poderes separados por vírgula", required = true, example = "voo,super força")
+            @RequestParam List<String> nomes,
+            @Parameter(description = "todos (padrão) ou algum") @RequestParam(defaultValue = "todos") String modo,
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade máxima de itens por página (opcional)") @RequestParam(required = false) Integer limite) {
+        boolean todos;
+        if (modo.equalsIgnoreCase("todos")) {
+            todos = true;
+        } else if (modo.equalsIgnoreCase("algum")) {
+            todos = false;
+        } else {
+            throw new IllegalArgumentException("Modo inválido: " + modo + " (use todos ou algum)");
+        }
+        if (paginado(cursor, limite)) {
+            return ResponseEntity.ok(personagemService.buscarPorPoderesPagina(nomes, todos, cursor, limite));
+        }
+        return ResponseEntity.ok(personagemService.buscarPorPoderes(nomes, todos));
+    }
+    
     // Filtra personagens com múltiplos critérios: nome, afiliação e status
     @Operation(summary = "Filtrar personagens", description = "Busca personagens usando múltiplos critérios de filtro")
     @GetMapping("/filtrar")
-    public ResponseEntity<List<Personagem>> filtrar(
+    public ResponseEntity<?> filtrar(
             @Parameter(description = "Nome do personagem (opcional)") @RequestParam(required = false) String nome,
             @Parameter(description = "Afiliação do personagem (opcional)") @RequestParam(required = false) String afiliacao,
-            @Parameter(description = "Status do personagem (opcional)") @RequestParam(required = false) StatusPersonagem status) {
+            @Parameter(description = "Status do personagem (opcional)") @RequestParam(required = false) StatusPersonagem status,
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade máxima de itens por página (opcional)") @RequestParam(required = false) Integer limite,
+            @Parameter(description = "Campos a retornar, separados por vírgula (opcional, ex.: id,nome,alinhamento,imagemUrl)")
+            @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return listarCampos(fields, new FiltroPersonagens(nome, afiliacao, status), cursor, limite);
+        }
+        if (paginado(cursor, limite)) {
+            return ResponseEntity.ok(personagemService.buscarPorMultiplosCriteriosPagina(nome, afiliacao, status, cursor, limite));
+        }
         List<Personagem> personagens = personagemService.buscarPorMultiplosCriterios(nome, afiliacao, status);
         return ResponseEntity.ok(personagens);
     }
     
+    // Pesquisa textual por relevância em todos os campos de texto, com paginação por cursor
+    @Operation(summary = "Pesquisa textual por relevância",
+            description = "Pesquisa as palavras em nome, nome real, origem, poderes e descrição, sem diferenciar acentos, " +
+                    "plural/singular ou maiúsculas, e retorna os personagens em ordem de relevância (nome pesa mais que descrição)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página de resultados em ordem de relevância"),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "503", description = "Índice de pesquisa ainda em carga")
+    })
+    @GetMapping("/pesquisar")
+    public ResponseEntity<PaginaCursor<ItemPesquisa>> pesquisar(
+            @Parameter(description = "Texto a pesquisar", required = true, example = "visão de calor") @RequestParam String q,
+            @Parameter(description = "Cursor opaco retornado na página anterior (opcional)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade máxima de itens por página (opcional)") @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(personagemService.pesquisar(q, cursor, limite));
+    }
+    
+    // Sugestões para o campo de busca (autocompletar), a cada tecla digitada
+    @Operation(summary = "Sugestões de personagens (autocompletar)",
+            description = "Retorna ID e nome dos personagens cujo nome ou nome real começa com o prefixo, " +
+                    "sem diferenciar acentos ou maiúsculas, dos mais acessados para os menos")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Sugestões encontradas"),
+        @ApiResponse(responseCode = "503", description = "Índice de sugestões ainda em carga")
+    })
+    @GetMapping("/sugerir")
+    public ResponseEntity<List<Sugestao>> sugerir(
+            @Parameter(description = "Início do nome ou do nome real", required = true, example = "bat") @RequestParam String prefixo,
+            @Parameter(description = "Quantidade máxima de sugestões (opcional)") @RequestParam(required = false) Integer limite) {
+        return ResponseEntity.ok(personagemService.sugerir(prefixo, limite));
+    }
+    
+    // Fluxo de alterações (Server-Sent Events): o cliente é avisado de cada criação, atualização
+    // ou remoção em vez de consultar a lista periodicamente
+    @Operation(summary = "Fluxo de alterações (SSE)",
+            description = "Envia um evento (criado, atualizado ou removido) a cada alteração confirmada, com o personagem atualizado. " +
+                    "O campo id de cada evento é uma sequência crescente; na reconexão, Last-Event-ID retoma a partir dele. " +
+                    "Se as alterações desde esse ID não estiverem mais disponíveis, é enviado o evento reinicio")
+    @ApiResponse(responseCode = "200", description = "Fluxo aberto",
+            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE, schema = @Schema(implementation = AlteracaoPersonagem.class)))
+    @GetMapping(value = "/alteracoes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter alteracoes(
+            @Parameter(description = "ID do último evento recebido (enviado automaticamente pelo EventSource ao reconectar)")
+            @RequestHeader(value = "Last-Event-ID", required = false) String ultimoIdEvento) {
+        return personagemService.assinarAlteracoes(ultimoIdEvento);
+    }
+    
+    // Conta personagens por afiliação, status, alinhamento e/ou universo, com os mesmos filtros de /filtrar
+    @Operation(summary = "Contagens por dimensão (facetas)",
+            description = "Retorna a quantidade de personagens por valor de cada dimensão pedida, opcionalmente filtrando como em /filtrar")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Contagens calculadas",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResultadoFacetas.class))),
+        @ApiResponse(responseCode = "400", description = "Dimensão inválida")
+    })
+    @GetMapping("/facetas")
+    public ResponseEntity<ResultadoFacetas> facetas(
+            @Parameter(description = "Dimensões separadas por vírgula: afiliacao, status, alinhamento, universo (padrão: todas)")
+            @RequestParam(required = false) String dimensoes,
+            @Parameter(description = "Nome do personagem (opcional)") @RequestParam(required = false) String nome,
+            @Parameter(description = "Afiliação do personagem (opcional)") @RequestParam(required = false) String afiliacao,
+            @Parameter(description = "Status do personagem (opcional)") @RequestParam(required = false) StatusPersonagem status) {
+        Set<DimensaoFaceta> selecionadas = new LinkedHashSet<>();
+        if (dimensoes == null || dimensoes.isBlank()) {
+            selecionadas.addAll(Arrays.asList(DimensaoFaceta.values()));
+        } else {
+            for (String dimensao : dimensoes.split(",")) {
+                selecionadas.add(DimensaoFaceta.deNome(dimensao));
+            }
+        }
+        return ResponseEntity.ok(facetasService.contar(selecionadas, nome, afiliacao, status));
+    }
+    
     // Verifica se existe um personagem com o nome especificado
     @Operation(summary = "Verificar existência de personagem", description = "Verifica se existe um personagem com o nome especificado")
     @GetMapping("/existe/{nome}")
@@ -185,5 +437,47 @@ public class PersonagemController {
         boolean existe = personagemService.existePorNome(nome);
         return ResponseEntity.ok(existe);
     }
+    
+    // Listagem parcial (?fields=): somente as colunas pedidas são lidas do banco e escritas na resposta,
+    // em lista ou, com cursor/limite, em página
+    private ResponseEntity<?> listarCampos(String fields, FiltroPersonagens filtro, String cursor, Integer limite) {
+        Set<CampoPersonagem> campos = CampoPersonagem.deLista(fields);
+        if (paginado(cursor, limite)) {
+            return ResponseEntity.ok(personagemService.listarCamposPagina(campos, filtro, cursor, limite));
+        }
+        return ResponseEntity.ok(personagemService.listarCampos(campos, filtro));
+    }
+    
+    // A paginação por cursor é ativada quando o cliente informa cursor ou limite;
+    // sem eles, o endpoint mantém a resposta original em lista
+    private boolean paginado(String cursor, Integer limite) {
+        return cursor != null || limite != null;
+    }
+    
+    // Extrai a versão de um cabeçalho If-Match no formato da ETag de GET /{id} ("3", com aspas);
+    // ausente ou "*" não restringe
+    private static Long versaoDoIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.length() > 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            try {
+                return Long.valueOf(valor.substring(1, valor.length() - 1));
+            } catch (NumberFormatException e) {
+                // Mesmo erro de um valor fora do formato
+            }
+        }
+        throw new IllegalArgumentException("If-Match inválido: " + ifMatch + " (use a ETag retornada pelo GET, ex.: \"3\")");
+    }
+    
+    private static String etagDaVersao(Long versao) {
+        return "\"" + versao + "\"";
+    }
+    
+    // Com If-Match, uma alteração concorrente detectada só na gravação também é uma
+    // precondição que falhou (412); sem If-Match continua sendo um conflito (409)
+    private static RuntimeException conflitoNaGravacao(Long id, Long versaoEsperada, OptimisticLockingFailureException e) {
+        return versaoEsperada != null ? new ConflitoVersaoException(id, null) : e;
+    }
 }
-
@@ -0,0 +1,88 @@
+package com.dcheroes.api.controller;
+
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.model.dto.ResultadoLote;
+import com.dcheroes.api.service.PersonagemLoteService;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/personagens/lote")
+@CrossOrigin(origins = "*")
+@Tag(name = "Personagens em lote", description = "Operações em lote sobre personagens")
+public class PersonagemLoteController {
+
+    @Autowired
+    private PersonagemLoteService personagemLoteService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Cria personagens em lote a partir de um array JSON ou de NDJSON (um objeto por linha).
+    // O corpo é lido em streaming, então payloads grandes não são carregados inteiros em memória
+    @Operation(summary = "Criar personagens em lote",
+            description = "Cria vários personagens a partir de um array JSON ou NDJSON e retorna o resultado de cada item")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {
+        @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = Personagem.class))),
+        @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = Personagem.class))
+    })
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResultadoLote.class)))
+    })
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResultadoLote> criar(HttpServletRequest request) throws IOException {
+        try (MappingIterator<Personagem> personagens = lerPersonagens(request)) {
+            return ResponseEntity.ok(personagemLoteService.criar(personagens));
+        }
+    }
+
+    // Atualiza personagens em lote; cada item deve informar o ID
+    @Operation(summary = "Atualizar personagens em lote",
+            description = "Atualiza vários personagens (cada item com seu ID) a partir de um array JSON ou NDJSON")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = {
+        @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = Personagem.class))),
+        @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = Personagem.class))
+    })
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResultadoLote.class)))
+    })
+    @PutMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ResultadoLote> atualizar(HttpServletRequest request) throws IOException {
+        try (MappingIterator<Personagem> personagens = lerPersonagens(request)) {
+            return ResponseEntity.ok(personagemLoteService.atualizar(personagens));
+        }
+    }
+
+    // Remove personagens em lote a partir de um array de IDs
+    @Operation(summary = "Deletar personagens em lote", description = "Remove os personagens com os IDs informados")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ResultadoLote.class)))
+    })
+    @DeleteMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ResultadoLote> deletar(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(personagemLoteService.deletar(ids));
+    }
+
+    // Um array JSON na raiz é percorrido elemento a elemento; NDJSON é lido objeto a objeto
+    private MappingIterator<Personagem> lerPersonagens(HttpServletRequest request) throws IOException {
+        return objectMapper.readerFor(Personagem.class).readValues(request.getInputStream());
+    }
+}
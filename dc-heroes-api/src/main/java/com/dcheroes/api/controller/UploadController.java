@@ -1,28 +1,30 @@
 package com.dcheroes.api.controller;
 
+import com.dcheroes.api.imagem.ArmazemImagens;
+import com.dcheroes.api.imagem.ProcessadorImagens;
+import com.dcheroes.api.imagem.RecebedorUploads;
+import com.dcheroes.api.imagem.ServidorArquivos;
+import com.dcheroes.api.imagem.UploadRejeitadoException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/upload")
@@ -30,69 +32,54 @@ import java.util.UUID;
 @CrossOrigin(origins = "*")
 public class UploadController {
 
-    @Value("${app.upload.dir:uploads}")
-    private String uploadDir;
+    @Autowired
+    private ProcessadorImagens processadorImagens;
 
-    // Endpoint para upload de imagem
+    @Autowired
+    private ArmazemImagens armazemImagens;
+
+    @Autowired
+    private RecebedorUploads recebedorUploads;
+
+    @Autowired
+    private ServidorArquivos servidorArquivos;
+
+    // Endpoint para upload de imagem (o corpo multipart é lido em streaming direto para o destino)
     @PostMapping(value = "/imagem", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(summary = "Upload de imagem", description = "Faz upload de uma imagem para o servidor")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(required = true, content = @Content(
+            mediaType = MediaType.MULTIPART_FORM_DATA_VALUE,
+            schema = @Schema(implementation = FormularioUpload.class)))
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Upload realizado com sucesso"),
         @ApiResponse(responseCode = "400", description = "Arquivo inválido"),
+        @ApiResponse(responseCode = "413", description = "Arquivo maior que o limite"),
         @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
-    public ResponseEntity<Map<String, String>> uploadImagem(
-            @Parameter(description = "Arquivo de imagem", required = true)
-            @RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, String>> uploadImagem(HttpServletRequest request) {
         
         Map<String, String> response = new HashMap<>();
         
         try {
-            // Validar arquivo
-            if (file.isEmpty()) {
-                response.put("error", "Arquivo não pode estar vazio");
-                return ResponseEntity.badRequest().body(response);
-            }
-            
-            // Validar tipo de arquivo
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                response.put("error", "Arquivo deve ser uma imagem");
-                return ResponseEntity.badRequest().body(response);
-            }
+            // Validar e salvar arquivo pelo hash do conteúdo (uploads repetidos reaproveitam o arquivo existente).
+            // O formato é conferido pela assinatura nos primeiros bytes, não pelo Content-Type enviado
+            ArmazemImagens.ImagemArmazenada imagem = recebedorUploads.receber(request);
             
-            // Validar tamanho (máximo 10MB)
-            if (file.getSize() > 10 * 1024 * 1024) {
-                response.put("error", "Arquivo muito grande. Máximo 10MB");
-                return ResponseEntity.badRequest().body(response);
+            // Gerar miniatura, card e versão completa em segundo plano
+            if (!imagem.reaproveitada()) {
+                processadorImagens.agendarVariantes(imagem.caminho());
             }
             
-            // Criar diretório se não existir
-            Path uploadPath = Paths.get(uploadDir);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            // Gerar nome único para o arquivo
-            String originalFilename = file.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String filename = UUID.randomUUID().toString() + extension;
-            
-            // Salvar arquivo
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            
             // Retornar URL da imagem
-            String imageUrl = "/uploads/" + filename;
-            response.put("url", imageUrl);
-            response.put("filename", filename);
+            response.put("url", imagem.url());
+            response.put("filename", imagem.arquivo());
             response.put("message", "Upload realizado com sucesso");
             
             return ResponseEntity.ok(response);
             
+        } catch (UploadRejeitadoException e) {
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(e.getStatus()).body(response);
         } catch (IOException e) {
             response.put("error", "Erro ao salvar arquivo: " + e.getMessage());
             return ResponseEntity.internalServerError().body(response);
@@ -101,38 +88,25 @@ public class UploadController {
     
     @GetMapping("/imagem/{filename}")
     @Operation(summary = "Obter imagem", description = "Retorna uma imagem pelo nome do arquivo")
-    public ResponseEntity<Resource> obterImagem(
+    public void obterImagem(
             @Parameter(description = "Nome do arquivo da imagem")
-            @PathVariable String filename) {
+            @PathVariable String filename,
+            @Parameter(description = "Largura desejada em pixels; retorna uma variante redimensionada")
+            @RequestParam(required = false) Integer w,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         
-        try {
-            Path filePath = Paths.get(uploadDir).resolve(filename);
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                // Determinar tipo de conteúdo
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-                
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-            
-        } catch (MalformedURLException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (IOException e) {
-            return ResponseEntity.internalServerError().build();
+        Path filePath = armazemImagens.localizar(filename);
+        if (filePath == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+        ArquivosUploadController.servirImagem(filePath, w, servidorArquivos, processadorImagens, request, response);
     }
     
     @DeleteMapping("/imagem/{filename}")
-    @Operation(summary = "Deletar imagem", description = "Remove uma imagem do servidor")
+    @Operation(summary = "Deletar imagem", description = "Remove uma imagem do servidor, se nenhum personagem a utiliza")
     public ResponseEntity<Map<String, String>> deletarImagem(
             @Parameter(description = "Nome do arquivo da imagem")
             @PathVariable String filename) {
@@ -140,10 +114,13 @@ public class UploadController {
         Map<String, String> response = new HashMap<>();
         
         try {
-            Path filePath = Paths.get(uploadDir).resolve(filename);
+            Path filePath = armazemImagens.localizar(filename);
             
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
+            if (filePath != null && Files.exists(filePath)) {
+                if (!armazemImagens.removerSeSemUso(filePath)) {
+                    response.put("error", "Imagem em uso por um ou mais personagens");
+                    return ResponseEntity.status(409).body(response);
+                }
                 response.put("message", "Imagem deletada com sucesso");
                 return ResponseEntity.ok(response);
             } else {
@@ -156,5 +133,12 @@ public class UploadController {
             return ResponseEntity.internalServerError().body(response);
         }
     }
-}
 
+    // Formato do corpo do upload, apenas para a documentação OpenAPI
+    @Schema(name = "FormularioUpload")
+    static class FormularioUpload {
+        @Schema(type = "string", format = "binary", description = "Arquivo de imagem (JPEG, PNG, GIF, WebP ou BMP)",
+                required = true)
+        public String file;
+    }
+}
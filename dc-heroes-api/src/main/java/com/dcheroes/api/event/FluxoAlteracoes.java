@@ -0,0 +1,337 @@
+package com.dcheroes.api.event;
+
+import com.dcheroes.api.model.dto.AlteracaoPersonagem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fluxo de alterações de personagens enviado por Server-Sent Events (/api/personagens/alteracoes).
+ *
+ * Cada alteração confirmada recebe um número de sequência crescente, é serializada uma única vez
+ * e guardada em um buffer circular de tamanho fixo; a única fila de cada assinante é a posição
+ * dele nesse buffer. Uma thread de despacho entrega a escrita de cada assinante com eventos
+ * pendentes a um pool de tamanho fixo com fila limitada, com no máximo uma escrita em andamento
+ * por assinante: as conexões ociosas não ocupam threads, e um cliente lento não atrasa os demais.
+ * Quem passa mais de app.alteracoes.prazo-envio em uma escrita (contando a espera na fila), ou
+ * não cabe na fila, é desconectado e reconecta com Last-Event-ID. Na
+ * reconexão o navegador envia o último ID recebido (Last-Event-ID) e o envio continua a partir
+ * dele; se esse ponto já saiu do buffer, o assinante recebe "reinicio" e deve recarregar a lista.
+ */
+@Component
+public class FluxoAlteracoes {
+
+    private static final Logger log = LoggerFactory.getLogger(FluxoAlteracoes.class);
+
+    private static final String EVENTO_CONECTADO = "conectado";
+    private static final String EVENTO_REINICIO = "reinicio";
+
+    private final ObjectMapper objectMapper;
+    private final int capacidade;
+    private final long tempoMaximoMs;
+    private final long prazoEnvioNs;
+
+    // Entrada da sequência s na posição s % capacidade; uma entrada com outra sequência foi sobrescrita
+    private final AtomicReferenceArray<Entrada> buffer;
+    private final Object travaBuffer = new Object();
+
+    // Parte do instante de inicialização para que um ID recebido antes de um reinício da
+    // aplicação não coincida com um evento novo (ele cai antes do buffer e gera "reinicio")
+    private final long sequenciaInicial = System.currentTimeMillis();
+    private volatile long ultimaSequencia = sequenciaInicial;
+
+    private final Set<Assinante> assinantes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean envioAgendado = new AtomicBoolean();
+    private final ScheduledExecutorService envio = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "fluxo-alteracoes");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Escritas nos emitters: clientes lentos ocupam no máximo estas threads, cada uma até o prazo
+    private final ThreadPoolExecutor escrita;
+
+    public FluxoAlteracoes(ObjectMapper objectMapper,
+                           @Value("${app.alteracoes.tamanho-buffer:4096}") int capacidade,
+                           @Value("${app.alteracoes.intervalo-heartbeat:15s}") Duration intervaloHeartbeat,
+                           @Value("${app.alteracoes.tempo-maximo:30m}") Duration tempoMaximo,
+                           @Value("${app.alteracoes.prazo-envio:10s}") Duration prazoEnvio,
+                           @Value("${app.alteracoes.threads-escrita:8}") int threadsEscrita,
+                           @Value("${app.alteracoes.fila-escrita:8192}") int filaEscrita,
+                           MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.capacidade = capacidade;
+        this.tempoMaximoMs = tempoMaximo.toMillis();
+        this.prazoEnvioNs = prazoEnvio.toNanos();
+        AtomicInteger contadorEscrita = new AtomicInteger();
+        this.escrita = new ThreadPoolExecutor(threadsEscrita, threadsEscrita, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(filaEscrita), r -> {
+                    Thread thread = new Thread(r, "fluxo-alteracoes-escrita-" + contadorEscrita.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.buffer = new AtomicReferenceArray<>(capacidade);
+        // Comentário periódico: mantém a conexão aberta em proxies, revela clientes desconectados
+        // e desconecta os que estão presos em uma escrita além do prazo
+        long intervaloMs = intervaloHeartbeat.toMillis();
+        envio.scheduleWithFixedDelay(this::enviarHeartbeat, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+        Gauge.builder("alteracoes.assinantes", assinantes, Set::size)
+                .description("Conexões abertas no fluxo de alterações de personagens")
+                .register(meterRegistry);
+    }
+
+    // Abre uma assinatura. Sem "ultimoIdEvento", começa pelas alterações seguintes e envia primeiro
+    // "conectado" com a sequência atual; com ele, reenvia o que houve depois desse ID
+    public SseEmitter assinar(String ultimoIdEvento) {
+        SseEmitter emitter = new SseEmitter(tempoMaximoMs);
+        Assinante assinante = new Assinante(emitter);
+        long ultima = ultimaSequencia;
+        Long ultimoId = converterId(ultimoIdEvento);
+        if (ultimoId == null) {
+            assinante.enviada = ultima;
+            assinante.eventoInicial = EVENTO_CONECTADO;
+        } else if (ultimoId <= ultima && ultimoId >= Math.max(sequenciaInicial, ultima - capacidade)) {
+            assinante.enviada = ultimoId;
+        } else {
+            assinante.enviada = ultima;
+            assinante.eventoInicial = EVENTO_REINICIO;
+        }
+
+        emitter.onCompletion(() -> assinantes.remove(assinante));
+        emitter.onError(erro -> assinantes.remove(assinante));
+        // Encerra normalmente: o cliente reconecta sozinho com o último ID recebido
+        emitter.onTimeout(() -> {
+            assinantes.remove(assinante);
+            emitter.complete();
+        });
+        assinantes.add(assinante);
+        agendarEnvio();
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarPersonagem(PersonagemAlteradoEvent evento) {
+        String dados = json(new AlteracaoPersonagem(evento.getTipo(), evento.getId(), evento.getAtual()));
+        String nome = evento.getTipo().name().toLowerCase(Locale.ROOT);
+        synchronized (travaBuffer) {
+            long sequencia = ultimaSequencia + 1;
+            buffer.set(indice(sequencia), new Entrada(sequencia, nome, dados));
+            ultimaSequencia = sequencia;
+        }
+        agendarEnvio();
+    }
+
+    // Envia "reinicio" a todos os assinantes, em ordem com as alterações: a lista mudou sem eventos
+    // por personagem (carga inicial) e deve ser recarregada. Fica no buffer como qualquer evento,
+    // então quem retoma de um ID anterior também o recebe
+    public void publicarReinicio() {
+        synchronized (travaBuffer) {
+            long sequencia = ultimaSequencia + 1;
+            buffer.set(indice(sequencia), new Entrada(sequencia, EVENTO_REINICIO, "{\"sequencia\":" + sequencia + "}"));
+            ultimaSequencia = sequencia;
+        }
+        agendarEnvio();
+    }
+
+    private void agendarEnvio() {
+        if (envioAgendado.compareAndSet(false, true)) {
+            envio.execute(() -> {
+                envioAgendado.set(false);
+                try {
+                    enviarPendentes();
+                } catch (RuntimeException e) {
+                    log.error("Falha ao enviar o fluxo de alterações", e);
+                }
+            });
+        }
+    }
+
+    // Executado apenas na thread de despacho: entrega ao pool de escrita cada assinante que ainda
+    // não recebeu tudo e não tem escrita em andamento
+    private void enviarPendentes() {
+        long agora = System.nanoTime();
+        for (Assinante assinante : assinantes) {
+            if (!verificarPrazo(assinante, agora)) {
+                continue;
+            }
+            if (assinante.eventoInicial != null || assinante.enviada < ultimaSequencia) {
+                escrever(assinante, () -> enviar(assinante, ultimaSequencia));
+            }
+        }
+    }
+
+    // Falso se o assinante tem uma escrita em andamento; se ela passou do prazo, ele é desconectado
+    private boolean verificarPrazo(Assinante assinante, long agora) {
+        if (!assinante.emEscrita.get()) {
+            return true;
+        }
+        if (agora - assinante.inicioEscrita > prazoEnvioNs) {
+            log.debug("Assinante do fluxo de alterações desconectado: escrita além do prazo");
+            desconectar(assinante);
+        }
+        return false;
+    }
+
+    // Executa a escrita no pool, se o assinante não tiver outra em andamento. Ao terminar, um novo
+    // despacho envia o que chegou durante a escrita
+    private void escrever(Assinante assinante, Runnable envioAssinante) {
+        if (!assinante.emEscrita.compareAndSet(false, true)) {
+            return;
+        }
+        assinante.inicioEscrita = System.nanoTime();
+        try {
+            escrita.execute(() -> {
+                try {
+                    envioAssinante.run();
+                } catch (RuntimeException e) {
+                    log.error("Falha ao enviar o fluxo de alterações", e);
+                    desconectar(assinante);
+                } finally {
+                    assinante.emEscrita.set(false);
+                }
+                if (assinantes.contains(assinante) && assinante.enviada < ultimaSequencia) {
+                    agendarEnvio();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Fila cheia (ou aplicação encerrando): o assinante reconecta e retoma pelo Last-Event-ID
+            log.debug("Assinante do fluxo de alterações desconectado: fila de escrita cheia");
+            desconectar(assinante);
+        }
+    }
+
+    // Executado no pool de escrita, uma escrita por assinante de cada vez: o assinante recebe,
+    // em ordem, o que ainda não recebeu
+    private void enviar(Assinante assinante, long ultima) {
+        try {
+            if (assinante.eventoInicial != null) {
+                enviarPosicao(assinante, assinante.eventoInicial, assinante.enviada);
+                assinante.eventoInicial = null;
+            }
+            for (long sequencia = assinante.enviada + 1; sequencia <= ultima; sequencia++) {
+                Entrada entrada = buffer.get(indice(sequencia));
+                if (entrada == null || entrada.sequencia() != sequencia) {
+                    // O assinante ficou mais de um buffer para trás: o que faltava já foi sobrescrito
+                    assinante.enviada = ultima;
+                    enviarPosicao(assinante, EVENTO_REINICIO, ultima);
+                    return;
+                }
+                assinante.emitter.send(SseEmitter.event()
+                        .id(Long.toString(sequencia))
+                        .name(entrada.nome())
+                        .data(entrada.dados(), MediaType.APPLICATION_JSON));
+                assinante.enviada = sequencia;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Conexão fechada pelo cliente ou já encerrada; o container conclui a requisição
+            assinantes.remove(assinante);
+        }
+    }
+
+    private void enviarPosicao(Assinante assinante, String nome, long sequencia) throws IOException {
+        assinante.emitter.send(SseEmitter.event()
+                .id(Long.toString(sequencia))
+                .name(nome)
+                .data("{\"sequencia\":" + sequencia + "}", MediaType.APPLICATION_JSON));
+    }
+
+    private void enviarHeartbeat() {
+        long agora = System.nanoTime();
+        for (Assinante assinante : assinantes) {
+            if (verificarPrazo(assinante, agora)) {
+                escrever(assinante, () -> {
+                    try {
+                        assinante.emitter.send(SseEmitter.event().comment("ping"));
+                    } catch (IOException | IllegalStateException e) {
+                        assinantes.remove(assinante);
+                    }
+                });
+            }
+        }
+    }
+
+    // Encerra a conexão do assinante; uma escrita bloqueada nela termina com erro quando o
+    // container fecha a resposta
+    private void desconectar(Assinante assinante) {
+        assinantes.remove(assinante);
+        try {
+            assinante.emitter.complete();
+        } catch (RuntimeException e) {
+            log.debug("Falha ao encerrar assinante do fluxo de alterações", e);
+        }
+    }
+
+    private int indice(long sequencia) {
+        return (int) Math.floorMod(sequencia, (long) capacidade);
+    }
+
+    private String json(AlteracaoPersonagem alteracao) {
+        try {
+            return objectMapper.writeValueAsString(alteracao);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar a alteração do personagem " + alteracao.getId(), e);
+        }
+    }
+
+    // Um ID que não foi gerado por este fluxo é tratado como desconhecido (resulta em "reinicio")
+    private static Long converterId(String id) {
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(id.trim());
+        } catch (NumberFormatException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        envio.shutdownNow();
+        escrita.shutdownNow();
+        for (Assinante assinante : assinantes) {
+            assinante.emitter.complete();
+        }
+        assinantes.clear();
+    }
+
+    private record Entrada(long sequencia, String nome, String dados) {
+    }
+
+    // Estado de envio de uma conexão. Depois de registrado, "enviada" e "eventoInicial" só são
+    // alterados pela escrita em andamento; "emEscrita" ordena uma escrita depois da anterior
+    private static final class Assinante {
+        private final SseEmitter emitter;
+        private final AtomicBoolean emEscrita = new AtomicBoolean();
+        private volatile long inicioEscrita;
+        private long enviada;
+        private String eventoInicial;
+
+        private Assinante(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+}
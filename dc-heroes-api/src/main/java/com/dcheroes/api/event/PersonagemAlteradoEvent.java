@@ -0,0 +1,59 @@
+package com.dcheroes.api.event;
+
+import com.dcheroes.api.model.Personagem;
+
+/**
+ * Evento publicado pelos serviços a cada criação, atualização ou remoção de personagem.
+ * Carrega cópias do estado anterior e do estado atual, para que os ouvintes (índices,
+ * caches, contadores) possam se atualizar de forma incremental após o commit.
+ */
+public class PersonagemAlteradoEvent {
+
+    public enum Tipo {
+        CRIADO,
+        ATUALIZADO,
+        REMOVIDO
+    }
+
+    private final Tipo tipo;
+    private final Long id;
+    private final Personagem anterior;
+    private final Personagem atual;
+
+    private PersonagemAlteradoEvent(Tipo tipo, Long id, Personagem anterior, Personagem atual) {
+        this.tipo = tipo;
+        this.id = id;
+        this.anterior = anterior;
+        this.atual = atual;
+    }
+
+    public static PersonagemAlteradoEvent criado(Personagem atual) {
+        return new PersonagemAlteradoEvent(Tipo.CRIADO, atual.getId(), null, new Personagem(atual));
+    }
+
+    public static PersonagemAlteradoEvent atualizado(Personagem anterior, Personagem atual) {
+        return new PersonagemAlteradoEvent(Tipo.ATUALIZADO, atual.getId(), anterior, new Personagem(atual));
+    }
+
+    public static PersonagemAlteradoEvent removido(Personagem anterior) {
+        return new PersonagemAlteradoEvent(Tipo.REMOVIDO, anterior.getId(), anterior, null);
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    // Estado antes da alteração (nulo na criação)
+    public Personagem getAnterior() {
+        return anterior;
+    }
+
+    // Estado após a alteração (nulo na remoção)
+    public Personagem getAtual() {
+        return atual;
+    }
+}
@@ -0,0 +1,28 @@
+package com.dcheroes.api.exception;
+
+/**
+ * Lançada quando a versão informada em If-Match não é mais a versão atual do personagem,
+ * ou quando o registro mudou entre a leitura e a gravação.
+ */
+public class ConflitoVersaoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final Long versaoAtual;
+
+    public ConflitoVersaoException(Long id, Long versaoAtual) {
+        super("Personagem " + id + " foi alterado por outra requisição" +
+                (versaoAtual != null ? " (versão atual: " + versaoAtual + ")" : ""));
+        this.id = id;
+        this.versaoAtual = versaoAtual;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getVersaoAtual() {
+        return versaoAtual;
+    }
+}
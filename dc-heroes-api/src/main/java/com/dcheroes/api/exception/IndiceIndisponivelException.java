@@ -0,0 +1,13 @@
+package com.dcheroes.api.exception;
+
+/**
+ * Lançada quando uma pesquisa chega antes de o índice textual terminar de ser carregado.
+ */
+public class IndiceIndisponivelException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public IndiceIndisponivelException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,29 @@
+package com.dcheroes.api.exception;
+
+/**
+ * Lançada quando não existe personagem com o ID informado.
+ */
+public class PersonagemNaoEncontradoException extends RecursoNaoEncontradoException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    public PersonagemNaoEncontradoException(Long id) {
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getDescricao() {
+        return "Personagem não encontrado";
+    }
+
+    @Override
+    public String getMessage() {
+        return "Personagem não encontrado com ID: " + id;
+    }
+}
@@ -0,0 +1,21 @@
+package com.dcheroes.api.exception;
+
+/**
+ * Base das exceções de recurso inexistente, respondidas com 404.
+ *
+ * Não encontrar um recurso é um resultado normal (clientes consultam IDs que não existem),
+ * então estas exceções não capturam a pilha de chamadas nem aceitam supressão, e a mensagem
+ * só é montada se alguém a pedir. O corpo da resposta depende apenas de {@link #getDescricao()},
+ * constante por tipo, e por isso é montado uma única vez.
+ */
+public abstract class RecursoNaoEncontradoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    protected RecursoNaoEncontradoException() {
+        super(null, null, false, false);
+    }
+
+    // Descrição fixa do tipo de recurso, usada no corpo da resposta (ex.: "Personagem não encontrado")
+    public abstract String getDescricao();
+}
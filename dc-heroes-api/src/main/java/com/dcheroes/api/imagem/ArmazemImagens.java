@@ -0,0 +1,268 @@
+package com.dcheroes.api.imagem;
+
+import com.dcheroes.api.event.PersonagemAlteradoEvent;
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.repository.PersonagemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Armazenamento endereçado por conteúdo dos uploads: cada arquivo é gravado como
+ * {@code <upload-dir>/ab/cd/<sha256>.<ext>}, com o hash calculado durante a própria cópia
+ * e a extensão definida pelo formato detectado no conteúdo. Enviar de novo os mesmos
+ * bytes devolve a URL já existente.
+ *
+ * Um arquivo só é apagado quando nenhum personagem aponta para ele em {@code imagemUrl}.
+ * A verificação é feita após o commit de cada remoção ou troca de imagem e na exclusão
+ * explícita pelo endpoint de upload. Como o mesmo arquivo pode acabar de ser devolvido
+ * para outro upload ainda não salvo em um personagem, arquivos enviados ou reaproveitados
+ * há menos que a carência não são apagados pela coleta automática. Uma varredura periódica
+ * recolhe os que perderam a última referência ainda dentro da carência, e os uploads que
+ * nunca chegaram a ser salvos em um personagem.
+ */
+@Component
+public class ArmazemImagens {
+
+    private static final Logger log = LoggerFactory.getLogger(ArmazemImagens.class);
+
+    private static final String PREFIXO_URL = "/uploads/";
+    private static final Pattern NOME_ENDERECADO = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,5})?");
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    @Autowired
+    private PersonagemRepository personagemRepository;
+
+    @Autowired
+    private CacheVariantes cacheVariantes;
+
+    @Autowired
+    private ServidorArquivos servidorArquivos;
+
+    private final Path raiz;
+    private final Duration carencia;
+    private final BlockingQueue<ByteBuffer> buffers = new ArrayBlockingQueue<>(16);
+
+    public ArmazemImagens(@Value("${app.upload.dir:uploads}") String uploadDir,
+                          @Value("${app.upload.carencia-remocao:1h}") Duration carencia) {
+        this.raiz = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.carencia = carencia;
+    }
+
+    public record ImagemArmazenada(String url, String arquivo, Path caminho, long tamanho, boolean reaproveitada) {
+    }
+
+    // Grava o conteúdo do canal calculando o SHA-256 durante a cópia; se o hash já existe, descarta a cópia.
+    // O primeiro bloco passa pela verificação de assinatura antes de qualquer gravação, e a leitura é
+    // interrompida assim que o tamanho máximo é ultrapassado
+    public ImagemArmazenada guardar(ReadableByteChannel origem, long tamanhoMaximo) throws IOException {
+        Files.createDirectories(raiz);
+        Path temporario = Files.createTempFile(raiz, ".upload-", ".tmp");
+        ByteBuffer buffer = obterBuffer();
+        try {
+            MessageDigest sha256 = novoSha256();
+            FormatoImagem formato = null;
+            long total = 0;
+            try (FileChannel destino = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+                boolean fimOrigem = false;
+                while (!fimOrigem) {
+                    buffer.clear();
+                    while (buffer.hasRemaining() && !fimOrigem) {
+                        fimOrigem = origem.read(buffer) < 0;
+                    }
+                    buffer.flip();
+                    if (formato == null) {
+                        formato = validarFormato(buffer);
+                    }
+                    total += buffer.remaining();
+                    if (total > tamanhoMaximo) {
+                        throw new UploadRejeitadoException(HttpStatus.PAYLOAD_TOO_LARGE, "tamanho",
+                                "Arquivo muito grande. Máximo " + tamanhoMaximo / (1024 * 1024) + "MB");
+                    }
+                    sha256.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        destino.write(buffer);
+                    }
+                }
+            }
+            String arquivo = HexFormat.of().formatHex(sha256.digest()) + "." + formato.getExtensao();
+            Path caminho = caminhoEnderecado(arquivo);
+
+            boolean reaproveitada = Files.exists(caminho);
+            if (!reaproveitada) {
+                Files.createDirectories(caminho.getParent());
+                // Dois uploads simultâneos do mesmo conteúdo gravam bytes idênticos; qualquer um pode vencer
+                Files.move(temporario, caminho, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // A data de modificação marca o último upload, usada na carência da coleta
+            Files.setLastModifiedTime(caminho, FileTime.from(Instant.now()));
+            return new ImagemArmazenada(url(caminho), arquivo, caminho, total, reaproveitada);
+        } finally {
+            devolverBuffer(buffer);
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private static FormatoImagem validarFormato(ByteBuffer primeiroBloco) {
+        if (!primeiroBloco.hasRemaining()) {
+            throw new UploadRejeitadoException(HttpStatus.BAD_REQUEST, "vazio", "Arquivo não pode estar vazio");
+        }
+        FormatoImagem formato = FormatoImagem.detectar(primeiroBloco);
+        if (formato == null) {
+            throw new UploadRejeitadoException(HttpStatus.BAD_REQUEST, "formato",
+                    "Arquivo deve ser uma imagem (JPEG, PNG, GIF, WebP ou BMP)");
+        }
+        return formato;
+    }
+
+    // Buffers diretos são caros de alocar; os liberados voltam para um pool pequeno
+    private ByteBuffer obterBuffer() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+    }
+
+    private void devolverBuffer(ByteBuffer buffer) {
+        buffer.clear();
+        buffers.offer(buffer);
+    }
+
+    // Caminho no disco de um arquivo pelo nome devolvido no upload; nomes antigos (UUID) ficam na raiz.
+    // Retorna null para nomes que sairiam do diretório de uploads
+    public Path localizar(String arquivo) {
+        if (NOME_ENDERECADO.matcher(arquivo).matches()) {
+            return caminhoEnderecado(arquivo);
+        }
+        Path caminho = raiz.resolve(arquivo).normalize();
+        return caminho.startsWith(raiz) && !caminho.equals(raiz) ? caminho : null;
+    }
+
+    // Indica se algum personagem usa o arquivo como imagem
+    public boolean emUso(Path arquivo) {
+        return personagemRepository.existsByImagemUrl(url(arquivo));
+    }
+
+    // Apaga o arquivo e suas variantes se nenhum personagem o referencia. Retorna false se o arquivo está em uso
+    public boolean removerSeSemUso(Path arquivo) throws IOException {
+        if (emUso(arquivo)) {
+            return false;
+        }
+        Files.deleteIfExists(arquivo);
+        servidorArquivos.invalidar(arquivo);
+        cacheVariantes.removerVariantes(arquivo.getFileName().toString());
+        return true;
+    }
+
+    // Recolhe os arquivos endereçados sem referência cuja carência já passou
+    @Scheduled(initialDelayString = "${app.upload.intervalo-coleta-ms:3600000}",
+            fixedDelayString = "${app.upload.intervalo-coleta-ms:3600000}")
+    public void coletarSemUso() {
+        if (!Files.isDirectory(raiz)) {
+            return;
+        }
+        int removidos = 0;
+        // Só os dois níveis de subdiretórios do hash: variantes e nomes antigos ficam de fora
+        try (Stream<Path> caminhos = Files.find(raiz, 3, (caminho, atributos) -> atributos.isRegularFile()
+                && caminho.getNameCount() - raiz.getNameCount() == 3
+                && NOME_ENDERECADO.matcher(caminho.getFileName().toString()).matches())) {
+            for (Path arquivo : (Iterable<Path>) caminhos::iterator) {
+                try {
+                    if (!dentroDaCarencia(arquivo) && removerSeSemUso(arquivo)) {
+                        removidos++;
+                    }
+                } catch (IOException e) {
+                    log.warn("Não foi possível recolher a imagem {}", arquivo, e);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Falha na coleta de imagens sem uso em {}", raiz, e);
+        }
+        if (removidos > 0) {
+            log.info("Coleta de imagens sem uso: {} arquivos removidos", removidos);
+        }
+    }
+
+    // Recolhe a imagem antiga quando um personagem é removido ou troca de imagem. Dentro da
+    // carência o arquivo fica para a coleta periódica
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarPersonagem(PersonagemAlteradoEvent evento) {
+        Personagem anterior = evento.getAnterior();
+        if (anterior == null || anterior.getImagemUrl() == null) {
+            return;
+        }
+        Personagem atual = evento.getAtual();
+        if (atual != null && Objects.equals(anterior.getImagemUrl(), atual.getImagemUrl())) {
+            return;
+        }
+        Path arquivo = caminhoDaUrl(anterior.getImagemUrl());
+        if (arquivo == null) {
+            return;
+        }
+        try {
+            if (!Files.isRegularFile(arquivo) || dentroDaCarencia(arquivo)) {
+                return;
+            }
+            removerSeSemUso(arquivo);
+        } catch (IOException e) {
+            log.warn("Não foi possível recolher a imagem {}", arquivo, e);
+        }
+    }
+
+    private boolean dentroDaCarencia(Path arquivo) throws IOException {
+        Instant modificacao = Files.getLastModifiedTime(arquivo).toInstant();
+        return modificacao.plus(carencia).isAfter(Instant.now());
+    }
+
+    // Converte uma imagemUrl local (/uploads/...) no caminho do arquivo; URLs externas retornam null
+    private Path caminhoDaUrl(String url) {
+        if (!url.startsWith(PREFIXO_URL)) {
+            return null;
+        }
+        String relativo = url.substring(PREFIXO_URL.length());
+        Path caminho = raiz.resolve(relativo).normalize();
+        return caminho.startsWith(raiz) && !caminho.equals(raiz) ? caminho : null;
+    }
+
+    private String url(Path arquivo) {
+        return PREFIXO_URL + raiz.relativize(arquivo.toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    // Dois níveis de subdiretórios pelos primeiros bytes do hash, para nenhum diretório crescer demais
+    private Path caminhoEnderecado(String arquivo) {
+        return raiz.resolve(arquivo.substring(0, 2)).resolve(arquivo.substring(2, 4)).resolve(arquivo);
+    }
+
+    private static MessageDigest novoSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.dcheroes.api.imagem;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Cache em disco das variantes redimensionadas, em {@code <upload-dir>/variantes/<largura>/<arquivo>}.
+ * O tamanho de cada arquivo é mantido em ordem de acesso e, quando o total passa do limite,
+ * as variantes usadas há mais tempo são apagadas; uma variante apagada é gerada de novo no
+ * próximo pedido.
+ */
+@Component
+public class CacheVariantes {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheVariantes.class);
+
+    private final Path diretorio;
+    private final long tamanhoMaximoBytes;
+    private final ServidorArquivos servidorArquivos;
+
+    // Acesso sempre sob o monitor desta instância
+    private final LinkedHashMap<Path, Long> entradas = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    public CacheVariantes(@Value("${app.upload.dir:uploads}") String uploadDir,
+                          @Value("${app.imagens.cache.tamanho-maximo-bytes:536870912}") long tamanhoMaximoBytes,
+                          ServidorArquivos servidorArquivos) {
+        this.diretorio = Paths.get(uploadDir, "variantes");
+        this.tamanhoMaximoBytes = tamanhoMaximoBytes;
+        this.servidorArquivos = servidorArquivos;
+    }
+
+    // Recupera as variantes que já estavam em disco, das modificadas há mais tempo para as mais recentes
+    @PostConstruct
+    public void carregar() throws IOException {
+        if (!Files.isDirectory(diretorio)) {
+            return;
+        }
+        List<Path> arquivos;
+        try (Stream<Path> caminhos = Files.walk(diretorio)) {
+            arquivos = caminhos.filter(Files::isRegularFile)
+                    .filter(arquivo -> !arquivo.getFileName().toString().endsWith(".tmp"))
+                    .sorted(Comparator.comparing(CacheVariantes::ultimaModificacao))
+                    .toList();
+        }
+        for (Path arquivo : arquivos) {
+            registrar(arquivo, Files.size(arquivo));
+        }
+        log.info("Cache de variantes de imagem: {} arquivos, {} bytes", arquivos.size(), totalBytes);
+    }
+
+    public Path getDiretorio() {
+        return diretorio;
+    }
+
+    // Caminho da variante de um arquivo original em uma largura e formato de saída
+    public Path caminho(String nomeOriginal, int largura, String extensao) {
+        return diretorio.resolve(String.valueOf(largura)).resolve(nomeBase(nomeOriginal) + "." + extensao);
+    }
+
+    // Indica se a variante está no cache, marcando-a como usada recentemente
+    public synchronized boolean contem(Path variante) {
+        return entradas.get(variante) != null;
+    }
+
+    // Registra uma variante recém-gravada e apaga as menos usadas se o limite foi ultrapassado
+    public synchronized void registrar(Path variante, long tamanho) {
+        Long anterior = entradas.put(variante, tamanho);
+        totalBytes += tamanho - (anterior == null ? 0 : anterior);
+        Iterator<Map.Entry<Path, Long>> iterador = entradas.entrySet().iterator();
+        while (totalBytes > tamanhoMaximoBytes && iterador.hasNext()) {
+            Map.Entry<Path, Long> maisAntiga = iterador.next();
+            if (maisAntiga.getKey().equals(variante)) {
+                continue;
+            }
+            iterador.remove();
+            totalBytes -= maisAntiga.getValue();
+            apagar(maisAntiga.getKey());
+        }
+    }
+
+    // Remove todas as variantes de um arquivo original (usado quando a imagem é apagada)
+    public synchronized void removerVariantes(String nomeOriginal) {
+        String prefixo = nomeBase(nomeOriginal) + ".";
+        Iterator<Map.Entry<Path, Long>> iterador = entradas.entrySet().iterator();
+        while (iterador.hasNext()) {
+            Map.Entry<Path, Long> entrada = iterador.next();
+            if (entrada.getKey().getFileName().toString().startsWith(prefixo)) {
+                iterador.remove();
+                totalBytes -= entrada.getValue();
+                apagar(entrada.getKey());
+            }
+        }
+    }
+
+    private static String nomeBase(String nomeArquivo) {
+        int ponto = nomeArquivo.lastIndexOf('.');
+        return ponto > 0 ? nomeArquivo.substring(0, ponto) : nomeArquivo;
+    }
+
+    private void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+            servidorArquivos.invalidar(arquivo);
+        } catch (IOException e) {
+            log.warn("Não foi possível apagar a variante {}", arquivo, e);
+        }
+    }
+
+    private static FileTime ultimaModificacao(Path arquivo) {
+        try {
+            return Files.getLastModifiedTime(arquivo);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
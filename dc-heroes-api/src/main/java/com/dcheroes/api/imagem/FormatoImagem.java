@@ -0,0 +1,61 @@
+package com.dcheroes.api.imagem;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Formatos de imagem aceitos no upload, reconhecidos pela assinatura (magic bytes) no
+ * início do arquivo em vez do Content-Type informado pelo cliente.
+ */
+public enum FormatoImagem {
+    JPEG("jpg"),
+    PNG("png"),
+    GIF("gif"),
+    WEBP("webp"),
+    BMP("bmp");
+
+    private final String extensao;
+
+    FormatoImagem(String extensao) {
+        this.extensao = extensao;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    // Identifica o formato pelos primeiros bytes, sem alterar a posição do buffer; null se não reconhecido
+    public static FormatoImagem detectar(ByteBuffer inicio) {
+        int p = inicio.position();
+        int disponivel = inicio.remaining();
+        if (disponivel >= 3 && u(inicio, p) == 0xFF && u(inicio, p + 1) == 0xD8 && u(inicio, p + 2) == 0xFF) {
+            return JPEG;
+        }
+        if (disponivel >= 8 && u(inicio, p) == 0x89 && ascii(inicio, p + 1, "PNG")
+                && u(inicio, p + 4) == 0x0D && u(inicio, p + 5) == 0x0A && u(inicio, p + 6) == 0x1A && u(inicio, p + 7) == 0x0A) {
+            return PNG;
+        }
+        if (disponivel >= 6 && (ascii(inicio, p, "GIF87a") || ascii(inicio, p, "GIF89a"))) {
+            return GIF;
+        }
+        if (disponivel >= 12 && ascii(inicio, p, "RIFF") && ascii(inicio, p + 8, "WEBP")) {
+            return WEBP;
+        }
+        if (disponivel >= 2 && ascii(inicio, p, "BM")) {
+            return BMP;
+        }
+        return null;
+    }
+
+    private static int u(ByteBuffer buffer, int indice) {
+        return buffer.get(indice) & 0xFF;
+    }
+
+    private static boolean ascii(ByteBuffer buffer, int indice, String esperado) {
+        for (int i = 0; i < esperado.length(); i++) {
+            if (buffer.get(indice + i) != esperado.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
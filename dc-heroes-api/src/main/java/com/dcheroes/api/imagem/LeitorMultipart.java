@@ -0,0 +1,198 @@
+package com.dcheroes.api.imagem;
+
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Leitor incremental de um corpo multipart/form-data. Percorre as partes em sequência e
+ * expõe o corpo da parte atual como canal de leitura, procurando o delimitador dentro de
+ * um buffer fixo: nada é acumulado em memória nem gravado em arquivo temporário.
+ */
+class LeitorMultipart implements ReadableByteChannel {
+
+    private static final int TAMANHO_BUFFER = 16 * 1024;
+    private static final int TAMANHO_MAXIMO_CABECALHO = 8 * 1024;
+
+    private static final Pattern PARAMETRO_NAME = Pattern.compile("(?i)(?:^|;)\\s*name=\"([^\"]*)\"");
+    private static final Pattern PARAMETRO_FILENAME = Pattern.compile("(?i)(?:^|;)\\s*filename=\"([^\"]*)\"");
+
+    record Parte(String nomeCampo, String nomeArquivo, String tipo) {
+    }
+
+    private final InputStream entrada;
+    private final byte[] delimitador;
+    private final byte[] buffer;
+    private int inicio;
+    private int fim;
+    private boolean fimEntrada;
+    private boolean dentroDaParte;
+    private boolean terminado;
+
+    LeitorMultipart(InputStream entrada, String boundary) {
+        this.entrada = entrada;
+        this.delimitador = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[Math.max(TAMANHO_BUFFER, delimitador.length * 2)];
+        // O corpo começa direto com "--boundary"; o CRLF inicial permite tratar o primeiro
+        // delimitador como os demais, e o que vier antes dele (preâmbulo) é descartado como parte
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        fim = 2;
+        dentroDaParte = true;
+    }
+
+    // Avança para a próxima parte, descartando o que restar da atual, e lê seus cabeçalhos.
+    // Retorna null quando o delimitador final é encontrado
+    Parte proximaParte() throws IOException {
+        if (terminado) {
+            return null;
+        }
+        if (dentroDaParte) {
+            ByteBuffer descarte = ByteBuffer.allocate(4096);
+            while (read(descarte) >= 0) {
+                descarte.clear();
+            }
+        }
+        garantir(2);
+        if (fim - inicio < 2) {
+            throw malformado("Corpo multipart truncado");
+        }
+        if (buffer[inicio] == '-' && buffer[inicio + 1] == '-') {
+            terminado = true;
+            return null;
+        }
+        if (buffer[inicio] != '\r' || buffer[inicio + 1] != '\n') {
+            throw malformado("Delimitador multipart malformado");
+        }
+        inicio += 2;
+
+        String nomeCampo = null;
+        String nomeArquivo = null;
+        String tipo = null;
+        String linha;
+        while (!(linha = lerLinha()).isEmpty()) {
+            int doisPontos = linha.indexOf(':');
+            if (doisPontos < 0) {
+                continue;
+            }
+            String nome = linha.substring(0, doisPontos).trim().toLowerCase(Locale.ROOT);
+            String valor = linha.substring(doisPontos + 1).trim();
+            if (nome.equals("content-disposition")) {
+                nomeCampo = parametro(PARAMETRO_NAME, valor);
+                nomeArquivo = parametro(PARAMETRO_FILENAME, valor);
+            } else if (nome.equals("content-type")) {
+                tipo = valor;
+            }
+        }
+        dentroDaParte = true;
+        return new Parte(nomeCampo, nomeArquivo, tipo);
+    }
+
+    // Lê o corpo da parte atual; retorna -1 ao chegar no delimitador
+    @Override
+    public int read(ByteBuffer destino) throws IOException {
+        if (!dentroDaParte) {
+            return -1;
+        }
+        while (true) {
+            int posicao = indiceDelimitador();
+            if (posicao == inicio) {
+                inicio += delimitador.length;
+                dentroDaParte = false;
+                return -1;
+            }
+            // Sem delimitador à vista, os últimos bytes ainda podem ser o começo de um
+            int disponivel = posicao >= 0 ? posicao - inicio : fim - inicio - (delimitador.length - 1);
+            if (disponivel > 0) {
+                int quantidade = Math.min(disponivel, destino.remaining());
+                destino.put(buffer, inicio, quantidade);
+                inicio += quantidade;
+                return quantidade;
+            }
+            if (fimEntrada) {
+                throw malformado("Corpo multipart truncado");
+            }
+            preencher();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !terminado;
+    }
+
+    @Override
+    public void close() {
+        // A entrada pertence à requisição; o container a fecha
+    }
+
+    private int indiceDelimitador() {
+        int ultimoInicio = fim - delimitador.length;
+        procura:
+        for (int i = inicio; i <= ultimoInicio; i++) {
+            for (int j = 0; j < delimitador.length; j++) {
+                if (buffer[i + j] != delimitador[j]) {
+                    continue procura;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private String lerLinha() throws IOException {
+        while (true) {
+            for (int i = inicio; i < fim - 1; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    String linha = new String(buffer, inicio, i - inicio, StandardCharsets.UTF_8);
+                    inicio = i + 2;
+                    return linha;
+                }
+            }
+            if (fim - inicio >= TAMANHO_MAXIMO_CABECALHO) {
+                throw malformado("Cabeçalho multipart muito grande");
+            }
+            if (fimEntrada) {
+                throw malformado("Corpo multipart truncado");
+            }
+            preencher();
+        }
+    }
+
+    private void garantir(int quantidade) throws IOException {
+        while (fim - inicio < quantidade && !fimEntrada) {
+            preencher();
+        }
+    }
+
+    // Move os bytes pendentes para o início do buffer e lê mais da entrada
+    private void preencher() throws IOException {
+        if (inicio > 0) {
+            System.arraycopy(buffer, inicio, buffer, 0, fim - inicio);
+            fim -= inicio;
+            inicio = 0;
+        }
+        int lidos = entrada.read(buffer, fim, buffer.length - fim);
+        if (lidos < 0) {
+            fimEntrada = true;
+        } else {
+            fim += lidos;
+        }
+    }
+
+    private static UploadRejeitadoException malformado(String mensagem) {
+        return new UploadRejeitadoException(HttpStatus.BAD_REQUEST, "multipart", mensagem);
+    }
+
+    private static String parametro(Pattern padrao, String valor) {
+        Matcher matcher = padrao.matcher(valor);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
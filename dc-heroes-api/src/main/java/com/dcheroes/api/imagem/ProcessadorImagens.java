@@ -0,0 +1,269 @@
+package com.dcheroes.api.imagem;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gera variantes redimensionadas das imagens enviadas. O trabalho roda em um pool de
+ * threads de tamanho fixo com fila limitada: decodificar uma imagem de 10MB consome muita
+ * CPU e memória, e sem limite uploads simultâneos derrubariam o servidor. Quando a fila
+ * está cheia as variantes do upload ficam para ser geradas sob demanda, e um pedido
+ * sob demanda que não consegue vaga recebe a imagem original.
+ */
+@Component
+public class ProcessadorImagens {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessadorImagens.class);
+
+    private static final float QUALIDADE_JPEG = 0.85f;
+
+    private final CacheVariantes cacheVariantes;
+    private final Integer[] larguras;
+    private final Duration esperaMaxima;
+    private final long maximoPixels;
+    private final ThreadPoolExecutor executor;
+
+    // Uma única geração por variante, mesmo com vários pedidos simultâneos
+    private final ConcurrentHashMap<Path, CompletableFuture<Path>> emAndamento = new ConcurrentHashMap<>();
+
+    // Originais que o ImageIO não sabe decodificar (ex.: WebP) ou com pixels demais para
+    // decodificar; são servidos sem redimensionar
+    private final Set<Path> naoSuportadas = ConcurrentHashMap.newKeySet();
+
+    public ProcessadorImagens(CacheVariantes cacheVariantes,
+                              @Value("${app.imagens.larguras:150,400,800,1200}") int[] larguras,
+                              @Value("${app.imagens.threads:2}") int threads,
+                              @Value("${app.imagens.fila:64}") int fila,
+                              @Value("${app.imagens.espera-maxima:10s}") Duration esperaMaxima,
+                              @Value("${app.imagens.maximo-pixels:50000000}") long maximoPixels) {
+        this.cacheVariantes = cacheVariantes;
+        this.esperaMaxima = esperaMaxima;
+        this.maximoPixels = maximoPixels;
+
+        // As larguras das variantes geradas no upload sempre fazem parte das permitidas
+        Set<Integer> permitidas = new TreeSet<>();
+        for (int largura : larguras) {
+            permitidas.add(largura);
+        }
+        for (VarianteImagem variante : VarianteImagem.values()) {
+            permitidas.add(variante.getLargura());
+        }
+        this.larguras = permitidas.toArray(Integer[]::new);
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), r -> {
+                    Thread thread = new Thread(r, "imagens-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    // Agenda a geração das variantes padrão de uma imagem recém-enviada, sem esperar o resultado
+    public void agendarVariantes(Path original) {
+        for (VarianteImagem variante : VarianteImagem.values()) {
+            try {
+                gerar(original, variante.getLargura());
+            } catch (RejectedExecutionException e) {
+                log.debug("Fila de imagens cheia; variantes de {} serão geradas sob demanda", original.getFileName());
+                return;
+            }
+        }
+    }
+
+    // Retorna a variante com a menor largura permitida que atenda o pedido, gerando-a se preciso.
+    // Se a imagem não puder ser redimensionada a tempo, retorna o próprio original
+    public Path obterVariante(Path original, int larguraPedida) {
+        if (naoSuportadas.contains(original)) {
+            return original;
+        }
+        try {
+            return gerar(original, larguraPermitida(larguraPedida))
+                    .get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException | TimeoutException e) {
+            log.debug("Variante de {} não gerada a tempo; servindo o original", original.getFileName());
+            return original;
+        } catch (ExecutionException e) {
+            log.warn("Falha ao gerar variante de {}", original.getFileName(), e.getCause());
+            return original;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return original;
+        }
+    }
+
+    private CompletableFuture<Path> gerar(Path original, int largura) {
+        Path destino = cacheVariantes.caminho(original.getFileName().toString(), largura, extensaoSaida(original));
+        if (cacheVariantes.contem(destino)) {
+            return CompletableFuture.completedFuture(destino);
+        }
+        CompletableFuture<Path> tarefa = emAndamento.computeIfAbsent(destino, d -> CompletableFuture.supplyAsync(
+                () -> gerarVariante(original, largura, d), executor));
+        tarefa.whenComplete((resultado, erro) -> emAndamento.remove(destino, tarefa));
+        return tarefa;
+    }
+
+    private Path gerarVariante(Path original, int largura, Path destino) {
+        try {
+            BufferedImage imagem = ler(original, largura);
+            if (imagem == null) {
+                naoSuportadas.add(original);
+                return original;
+            }
+            boolean transparente = "png".equals(extensaoSaida(original));
+            BufferedImage reduzida = redimensionar(imagem, Math.min(largura, imagem.getWidth()), transparente);
+
+            // Grava em arquivo temporário e move, para nunca servir uma variante pela metade
+            Files.createDirectories(destino.getParent());
+            Path temporario = Files.createTempFile(destino.getParent(), "variante", ".tmp");
+            try {
+                gravar(reduzida, transparente, temporario);
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+            cacheVariantes.registrar(destino, Files.size(destino));
+            return destino;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Decodifica a imagem já com subamostragem quando o original é muito maior que a largura pedida,
+    // o que evita carregar em memória milhões de pixels que seriam descartados. As dimensões vêm do
+    // cabeçalho: acima de maximoPixels a imagem não é decodificada (um arquivo pequeno pode declarar
+    // dimensões enormes) e, como as não suportadas, é servida sem redimensionar
+    private BufferedImage ler(Path original, int largura) throws IOException {
+        try (ImageInputStream entrada = ImageIO.createImageInputStream(original.toFile())) {
+            if (entrada == null) {
+                return null;
+            }
+            Iterator<ImageReader> leitores = ImageIO.getImageReaders(entrada);
+            if (!leitores.hasNext()) {
+                return null;
+            }
+            ImageReader leitor = leitores.next();
+            try {
+                leitor.setInput(entrada, true, true);
+                long pixels = (long) leitor.getWidth(0) * leitor.getHeight(0);
+                if (pixels > maximoPixels) {
+                    log.warn("Imagem {} com {} pixels, acima do máximo de {}; variantes não geradas",
+                            original.getFileName(), pixels, maximoPixels);
+                    return null;
+                }
+                int fator = Math.max(1, leitor.getWidth(0) / (largura * 2));
+                ImageReadParam parametros = leitor.getDefaultReadParam();
+                parametros.setSourceSubsampling(fator, fator, 0, 0);
+                return leitor.read(0, parametros);
+            } finally {
+                leitor.dispose();
+            }
+        }
+    }
+
+    // Reduz pela metade a cada passo com interpolação bilinear e faz o ajuste final com bicúbica;
+    // reduzir de uma vez só de milhares de pixels para poucas centenas gera serrilhado
+    private static BufferedImage redimensionar(BufferedImage origem, int largura, boolean transparente) {
+        int tipo = transparente ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int alturaFinal = Math.max(1, Math.round((float) origem.getHeight() * largura / origem.getWidth()));
+        BufferedImage atual = origem;
+        int larguraAtual = origem.getWidth();
+        int alturaAtual = origem.getHeight();
+        do {
+            boolean passoFinal = larguraAtual / 2 < largura;
+            larguraAtual = passoFinal ? largura : larguraAtual / 2;
+            alturaAtual = passoFinal ? alturaFinal : Math.max(1, alturaAtual / 2);
+
+            BufferedImage passo = new BufferedImage(larguraAtual, alturaAtual, tipo);
+            Graphics2D graficos = passo.createGraphics();
+            try {
+                if (!transparente) {
+                    // JPEG não tem canal alfa: áreas transparentes viram fundo branco, não preto
+                    graficos.setColor(Color.WHITE);
+                    graficos.fillRect(0, 0, larguraAtual, alturaAtual);
+                }
+                graficos.setRenderingHint(RenderingHints.KEY_INTERPOLATION, passoFinal
+                        ? RenderingHints.VALUE_INTERPOLATION_BICUBIC
+                        : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graficos.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graficos.drawImage(atual, 0, 0, larguraAtual, alturaAtual, null);
+            } finally {
+                graficos.dispose();
+            }
+            atual = passo;
+        } while (larguraAtual != largura);
+        return atual;
+    }
+
+    private static void gravar(BufferedImage imagem, boolean transparente, Path destino) throws IOException {
+        if (transparente) {
+            ImageIO.write(imagem, "png", destino.toFile());
+            return;
+        }
+        ImageWriter escritor = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream saida = ImageIO.createImageOutputStream(destino.toFile())) {
+            ImageWriteParam parametros = escritor.getDefaultWriteParam();
+            parametros.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parametros.setCompressionQuality(QUALIDADE_JPEG);
+            escritor.setOutput(saida);
+            escritor.write(null, new IIOImage(imagem, null, null), parametros);
+        } finally {
+            escritor.dispose();
+        }
+    }
+
+    // PNG e GIF podem ter transparência e viram PNG; o resto vira JPEG
+    private static String extensaoSaida(Path original) {
+        String nome = original.getFileName().toString().toLowerCase(Locale.ROOT);
+        return nome.endsWith(".png") || nome.endsWith(".gif") ? "png" : "jpg";
+    }
+
+    private int larguraPermitida(int larguraPedida) {
+        for (int largura : larguras) {
+            if (largura >= larguraPedida) {
+                return largura;
+            }
+        }
+        return larguras[larguras.length - 1];
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+}
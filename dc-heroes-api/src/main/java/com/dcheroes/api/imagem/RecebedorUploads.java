@@ -0,0 +1,132 @@
+package com.dcheroes.api.imagem;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recebe uploads de imagem lendo o corpo multipart direto da requisição para o
+ * {@link ArmazemImagens}, sem o parse do container (que grava cada arquivo em disco
+ * antes de o controller ver o primeiro byte). Requisições com Content-Length acima do
+ * limite são recusadas antes da leitura do corpo.
+ */
+@Component
+public class RecebedorUploads {
+
+    public static final String CAMPO_ARQUIVO = "file";
+
+    // Espaço para delimitadores e cabeçalhos das partes além do próprio arquivo
+    private static final long MARGEM_MULTIPART = 64 * 1024;
+
+    private final ArmazemImagens armazemImagens;
+    private final long tamanhoMaximo;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final DistributionSummary bytesRecebidos;
+    private final DistributionSummary vazao;
+    private final Counter bytesGravados;
+    private final Counter bytesReaproveitados;
+
+    public RecebedorUploads(ArmazemImagens armazemImagens,
+                            @Value("${app.upload.tamanho-maximo:10MB}") DataSize tamanhoMaximo,
+                            MeterRegistry meterRegistry) {
+        this.armazemImagens = armazemImagens;
+        this.tamanhoMaximo = tamanhoMaximo.toBytes();
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("uploads.em.andamento", emAndamento);
+        this.bytesRecebidos = DistributionSummary.builder("uploads.tamanho")
+                .description("Tamanho das imagens recebidas")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.vazao = DistributionSummary.builder("uploads.vazao")
+                .description("Taxa de recebimento de cada upload")
+                .baseUnit("bytes/s")
+                .register(meterRegistry);
+        // Bytes recebidos, separados entre os gravados em disco e os de conteúdo já armazenado
+        this.bytesGravados = Counter.builder("uploads.bytes")
+                .description("Bytes de imagens recebidos")
+                .baseUnit("bytes")
+                .tag("reaproveitada", "false")
+                .register(meterRegistry);
+        this.bytesReaproveitados = Counter.builder("uploads.bytes")
+                .description("Bytes de imagens recebidos")
+                .baseUnit("bytes")
+                .tag("reaproveitada", "true")
+                .register(meterRegistry);
+    }
+
+    public long getTamanhoMaximo() {
+        return tamanhoMaximo;
+    }
+
+    // Localiza o campo "file" no corpo multipart e grava seu conteúdo no armazenamento
+    public ArmazemImagens.ImagemArmazenada receber(HttpServletRequest request) throws IOException {
+        emAndamento.incrementAndGet();
+        long inicio = System.nanoTime();
+        try {
+            String boundary = boundary(request.getContentType());
+            if (request.getContentLengthLong() > tamanhoMaximo + MARGEM_MULTIPART) {
+                throw new UploadRejeitadoException(HttpStatus.PAYLOAD_TOO_LARGE, "tamanho",
+                        "Arquivo muito grande. Máximo " + tamanhoMaximo / (1024 * 1024) + "MB");
+            }
+            LeitorMultipart leitor = new LeitorMultipart(request.getInputStream(), boundary);
+            LeitorMultipart.Parte parte;
+            while ((parte = leitor.proximaParte()) != null) {
+                if (CAMPO_ARQUIVO.equals(parte.nomeCampo()) && parte.nomeArquivo() != null) {
+                    ArmazemImagens.ImagemArmazenada imagem = armazemImagens.guardar(leitor, tamanhoMaximo);
+                    registrar(imagem, System.nanoTime() - inicio);
+                    return imagem;
+                }
+            }
+            throw new UploadRejeitadoException(HttpStatus.BAD_REQUEST, "sem-arquivo",
+                    "Campo '" + CAMPO_ARQUIVO + "' com o arquivo não encontrado");
+        } catch (UploadRejeitadoException e) {
+            Counter.builder("uploads.rejeitados")
+                    .description("Uploads recusados por motivo")
+                    .tag("motivo", e.getMotivo())
+                    .register(meterRegistry)
+                    .increment();
+            throw e;
+        } finally {
+            emAndamento.decrementAndGet();
+        }
+    }
+
+    private void registrar(ArmazemImagens.ImagemArmazenada imagem, long duracaoNanos) {
+        long bytes = imagem.tamanho();
+        bytesRecebidos.record(bytes);
+        (imagem.reaproveitada() ? bytesReaproveitados : bytesGravados).increment(bytes);
+        if (duracaoNanos > 0) {
+            vazao.record(bytes * (double) TimeUnit.SECONDS.toNanos(1) / duracaoNanos);
+        }
+    }
+
+    private static String boundary(String contentType) {
+        try {
+            MediaType tipo = contentType == null ? null : MediaType.parseMediaType(contentType);
+            String boundary = tipo != null && MediaType.MULTIPART_FORM_DATA.includes(tipo)
+                    ? tipo.getParameter("boundary") : null;
+            if (boundary != null && boundary.length() > 1 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+                boundary = boundary.substring(1, boundary.length() - 1);
+            }
+            if (boundary != null && !boundary.isEmpty() && boundary.length() <= 70) {
+                return boundary;
+            }
+        } catch (InvalidMediaTypeException e) {
+            // tratado abaixo
+        }
+        throw new UploadRejeitadoException(HttpStatus.BAD_REQUEST, "requisicao",
+                "Requisição deve ser multipart/form-data com boundary");
+    }
+}
@@ -0,0 +1,266 @@
+package com.dcheroes.api.imagem;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Entrega arquivos de upload direto do disco. Os metadados (tamanho, data, tipo e ETag)
+ * ficam em cache, então uma requisição não faz stat nem detecção de tipo; o corpo é
+ * enviado pelo sendfile do Tomcat quando o conector suporta, ou por
+ * {@link FileChannel#transferTo}, sem passar por buffers da aplicação. Suporta
+ * requisições condicionais e um intervalo de bytes por requisição ({@code Range}).
+ */
+@Component
+public class ServidorArquivos {
+
+    // Os nomes dos arquivos nunca são reaproveitados, então o conteúdo de uma URL não muda
+    public static final String CACHE_IMUTAVEL = "public, max-age=31536000, immutable";
+    public static final String CACHE_CURTO = "public, max-age=60";
+
+    // Atributos do Tomcat para envio com sendfile (o fim é exclusivo)
+    private static final String SENDFILE_SUPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARQUIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIM = "org.apache.tomcat.sendfile.end";
+
+    // Abaixo deste tamanho a cópia direta sai mais barata que preparar o sendfile (mesmo limite do DefaultServlet)
+    private static final long TAMANHO_MINIMO_SENDFILE = 48 * 1024;
+
+    // Marcador de intervalo que não pode ser atendido (416)
+    private static final long[] INTERVALO_INVALIDO = new long[0];
+
+    private final Cache<Path, Metadados> metadados;
+
+    public ServidorArquivos(@Value("${app.arquivos.metadados.tamanho-maximo:10000}") long tamanhoMaximo,
+                            MeterRegistry meterRegistry) {
+        this.metadados = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, metadados, "metadados-arquivos");
+    }
+
+    // Responde a um GET/HEAD pelo arquivo, tratando If-None-Match, If-Modified-Since, Range e If-Range
+    public void servir(Path arquivo, boolean imutavel, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Metadados dados = metadados(arquivo);
+        if (dados == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, dados.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, dados.ultimaModificacao());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, imutavel ? CACHE_IMUTAVEL : CACHE_CURTO);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (naoModificado(request, dados)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long inicio = 0;
+        long quantidade = dados.tamanho();
+        long[] intervalo = intervalo(request, dados);
+        if (intervalo == INTERVALO_INVALIDO) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + dados.tamanho());
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        if (intervalo != null) {
+            inicio = intervalo[0];
+            quantidade = intervalo[1] - intervalo[0] + 1;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + intervalo[0] + "-" + intervalo[1] + "/" + dados.tamanho());
+        }
+
+        response.setContentType(dados.tipo());
+        response.setContentLengthLong(quantidade);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        enviar(arquivo, inicio, quantidade, request, response);
+    }
+
+    public boolean existe(Path arquivo) throws IOException {
+        return metadados(arquivo) != null;
+    }
+
+    // Descarta os metadados de um arquivo apagado
+    public void invalidar(Path arquivo) {
+        metadados.invalidate(arquivo.toAbsolutePath().normalize());
+    }
+
+    private Metadados metadados(Path arquivo) throws IOException {
+        try {
+            return metadados.get(arquivo.toAbsolutePath().normalize(), ServidorArquivos::lerMetadados);
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof NoSuchFileException) {
+                return null;
+            }
+            throw e.getCause();
+        }
+    }
+
+    private static Metadados lerMetadados(Path arquivo) {
+        try {
+            BasicFileAttributes atributos = Files.readAttributes(arquivo, BasicFileAttributes.class);
+            if (!atributos.isRegularFile()) {
+                throw new UncheckedIOException(new NoSuchFileException(arquivo.toString()));
+            }
+            long ultimaModificacao = atributos.lastModifiedTime().toMillis();
+            String tipo = MediaTypeFactory.getMediaType(arquivo.getFileName().toString())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+            String etag = "\"" + etag(arquivo, atributos.size(), ultimaModificacao) + "\"";
+            return new Metadados(atributos.size(), ultimaModificacao, tipo, etag);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Arquivos endereçados por conteúdo já têm o SHA-256 no nome; os demais usam tamanho e data
+    private static String etag(Path arquivo, long tamanho, long ultimaModificacao) {
+        String nome = arquivo.getFileName().toString();
+        int ponto = nome.indexOf('.');
+        String base = ponto < 0 ? nome : nome.substring(0, ponto);
+        if (base.length() == 64 && base.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            return base;
+        }
+        return Long.toHexString(tamanho) + "-" + Long.toHexString(ultimaModificacao);
+    }
+
+    private static boolean naoModificado(HttpServletRequest request, Metadados dados) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return correspondeEtag(ifNoneMatch, dados.etag(), true);
+        }
+        long ifModifiedSince = dataCabecalho(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && dados.ultimaModificacao() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    // Interpreta o cabeçalho Range. Retorna null para enviar o arquivo inteiro (sem Range, sintaxe
+    // não reconhecida, múltiplos intervalos ou If-Range desatualizado) e INTERVALO_INVALIDO para 416
+    private static long[] intervalo(HttpServletRequest request, Metadados dados) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null || !range.startsWith("bytes=") || range.indexOf(',') >= 0 || !ifRangeValido(request, dados)) {
+            return null;
+        }
+        String especificacao = range.substring("bytes=".length()).trim();
+        int traco = especificacao.indexOf('-');
+        if (traco < 0) {
+            return null;
+        }
+        long tamanho = dados.tamanho();
+        try {
+            String antes = especificacao.substring(0, traco).trim();
+            String depois = especificacao.substring(traco + 1).trim();
+            long inicio;
+            long fim;
+            if (antes.isEmpty()) {
+                // "bytes=-N": os últimos N bytes
+                long sufixo = Long.parseLong(depois);
+                if (sufixo <= 0) {
+                    return INTERVALO_INVALIDO;
+                }
+                inicio = Math.max(0, tamanho - sufixo);
+                fim = tamanho - 1;
+            } else {
+                inicio = Long.parseLong(antes);
+                long ultimo = depois.isEmpty() ? tamanho - 1 : Long.parseLong(depois);
+                if (ultimo < inicio) {
+                    return null;
+                }
+                fim = Math.min(ultimo, tamanho - 1);
+            }
+            if (inicio >= tamanho) {
+                return INTERVALO_INVALIDO;
+            }
+            return new long[]{inicio, fim};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Range só vale se o If-Range (ETag forte ou data) ainda corresponder ao arquivo atual
+    private static boolean ifRangeValido(HttpServletRequest request, Metadados dados) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return correspondeEtag(ifRange, dados.etag(), false);
+        }
+        long data = dataCabecalho(request, HttpHeaders.IF_RANGE);
+        return data >= 0 && dados.ultimaModificacao() / 1000 == data / 1000;
+    }
+
+    private static boolean correspondeEtag(String cabecalho, String etag, boolean comparacaoFraca) {
+        for (String candidata : cabecalho.split(",")) {
+            candidata = candidata.trim();
+            if (candidata.equals("*")) {
+                return true;
+            }
+            if (comparacaoFraca && candidata.startsWith("W/")) {
+                candidata = candidata.substring(2);
+            }
+            if (candidata.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long dataCabecalho(HttpServletRequest request, String nome) {
+        try {
+            return request.getDateHeader(nome);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static void enviar(Path arquivo, long inicio, long quantidade,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (quantidade >= TAMANHO_MINIMO_SENDFILE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPORTADO))) {
+            // O Tomcat envia o arquivo do kernel direto para o socket depois que o handler retorna
+            request.setAttribute(SENDFILE_ARQUIVO, arquivo.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIM, inicio + quantidade);
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            WritableByteChannel saida = Channels.newChannel(response.getOutputStream());
+            long enviado = 0;
+            while (enviado < quantidade) {
+                long transferido = canal.transferTo(inicio + enviado, quantidade - enviado, saida);
+                if (transferido <= 0) {
+                    break;
+                }
+                enviado += transferido;
+            }
+        }
+    }
+
+    private record Metadados(long tamanho, long ultimaModificacao, String tipo, String etag) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.dcheroes.api.imagem;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Upload recusado por conteúdo inválido ou tamanho excedido, com o status HTTP da resposta.
+ */
+public class UploadRejeitadoException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HttpStatus status;
+    private final String motivo;
+
+    public UploadRejeitadoException(HttpStatus status, String motivo, String mensagem) {
+        super(mensagem);
+        this.status = status;
+        this.motivo = motivo;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    // Identificador curto usado como tag nas métricas
+    public String getMotivo() {
+        return motivo;
+    }
+}
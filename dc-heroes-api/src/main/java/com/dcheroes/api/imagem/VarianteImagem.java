@@ -0,0 +1,20 @@
+package com.dcheroes.api.imagem;
+
+/**
+ * Variantes geradas em segundo plano logo após o upload, nas larguras usadas pelo frontend.
+ */
+public enum VarianteImagem {
+    MINIATURA(150),
+    CARD(400),
+    COMPLETA(1200);
+
+    private final int largura;
+
+    VarianteImagem(int largura) {
+        this.largura = largura;
+    }
+
+    public int getLargura() {
+        return largura;
+    }
+}
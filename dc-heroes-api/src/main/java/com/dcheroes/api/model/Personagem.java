@@ -1,6 +1,7 @@
 package com.dcheroes.api.model;
 
 import com.dcheroes.api.model.enums.Alinhamento; // <-- ADICIONADO
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
@@ -17,8 +18,12 @@ import jakarta.validation.constraints.Size;
 @Schema(description = "Entidade que representa um personagem da DC Comics")
 public class Personagem {
 
+    // Sequence com alocação em blocos (pooled): permite que o Hibernate agrupe os INSERTs
+    // em lotes JDBC, o que é impossível com IDENTITY
+    // A migração V7 reposiciona a sequence após o maior ID de bancos criados com IDENTITY
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "personagens_seq")
+    @SequenceGenerator(name = "personagens_seq", sequenceName = "personagens_seq", allocationSize = 50)
     @Schema(description = "ID único do personagem", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
     private Long id;
 
@@ -79,10 +84,26 @@ public class Personagem {
     @Schema(description = "Alinhamento moral do personagem (Herói, Vilão, etc.)", example = "HEROI")
     private Alinhamento alinhamento;
 
+    // Versão para controle de concorrência otimista; informada pelo cliente apenas via If-Match
+    @Version
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Versão do registro, incrementada a cada alteração (use em If-Match)", example = "3",
+            accessMode = Schema.AccessMode.READ_ONLY)
+    private Long versao;
+
 
     // Construtores
     public Personagem() {}
 
+    // Cópia do estado de outro personagem (usada nos eventos de alteração)
+    public Personagem(Personagem outro) {
+        this(outro.nome, outro.nomeReal, outro.origem, outro.universo, outro.poderes, outro.afiliacao,
+                outro.primeiraAparicao, outro.status, outro.descricao, outro.imagemUrl, outro.alinhamento);
+        this.id = outro.id;
+        this.versao = outro.versao;
+    }
+
     public Personagem(String nome, String nomeReal, String origem, String universo, String poderes,
                       String afiliacao, String primeiraAparicao, StatusPersonagem status, String descricao, 
                       String imagemUrl, Alinhamento alinhamento) {
@@ -196,8 +217,30 @@ public class Personagem {
     public void setAlinhamento(Alinhamento alinhamento) {
         this.alinhamento = alinhamento;
     }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
     // --- FIM DOS GETTERS E SETTERS ---
 
+    // Copia os dados editáveis de outro personagem (usado nas atualizações)
+    public void atualizarCom(Personagem dados) {
+        this.nome = dados.getNome();
+        this.nomeReal = dados.getNomeReal();
+        this.origem = dados.getOrigem();
+        this.poderes = dados.getPoderes();
+        this.afiliacao = dados.getAfiliacao();
+        this.primeiraAparicao = dados.getPrimeiraAparicao();
+        this.status = dados.getStatus();
+        this.descricao = dados.getDescricao();
+        this.alinhamento = dados.getAlinhamento();
+        this.imagemUrl = dados.getImagemUrl();
+    }
+
     @Override
     public String toString() {
         return "Personagem{" +
@@ -0,0 +1,71 @@
+package com.dcheroes.api.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Vínculo entre personagem e poder (tabela de junção personagem_poderes).
+ * Mapeado como entidade própria, sem coleções nas pontas: os vínculos são gravados em
+ * lotes JDBC junto com os personagens e consultados por poder com o índice
+ * (poder_id, personagem_id), sem carregar associações em cada personagem listado.
+ */
+@Entity
+@Table(name = "personagem_poderes")
+@IdClass(PersonagemPoder.Chave.class)
+public class PersonagemPoder {
+
+    @Id
+    @Column(name = "personagem_id")
+    private Long personagemId;
+
+    @Id
+    @Column(name = "poder_id")
+    private Long poderId;
+
+    public PersonagemPoder() {}
+
+    public PersonagemPoder(Long personagemId, Long poderId) {
+        this.personagemId = personagemId;
+        this.poderId = poderId;
+    }
+
+    public Long getPersonagemId() {
+        return personagemId;
+    }
+
+    public Long getPoderId() {
+        return poderId;
+    }
+
+    public static class Chave implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long personagemId;
+        private Long poderId;
+
+        public Chave() {}
+
+        public Chave(Long personagemId, Long poderId) {
+            this.personagemId = personagemId;
+            this.poderId = poderId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Chave outra)) {
+                return false;
+            }
+            return Objects.equals(personagemId, outra.personagemId) && Objects.equals(poderId, outra.poderId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(personagemId, poderId);
+        }
+    }
+}
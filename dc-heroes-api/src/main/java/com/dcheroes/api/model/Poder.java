@@ -0,0 +1,75 @@
+package com.dcheroes.api.model;
+
+import com.dcheroes.api.search.NormalizadorTexto;
+import jakarta.persistence.*;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Poder do catálogo normalizado, extraído da lista em texto de cada personagem
+ * ("Super força, voo, visão de calor"). A chave é o nome sem acentos, em minúsculas
+ * e com espaços simples, de forma que "Voo" e "voo" sejam o mesmo poder.
+ * Os vínculos com os personagens ficam em {@link PersonagemPoder}.
+ */
+@Entity
+@Table(name = "poderes")
+public class Poder {
+
+    private static final Pattern SEPARADORES = Pattern.compile("[,;]");
+    private static final Pattern ESPACOS = Pattern.compile("\\s+");
+
+    // Inserido pela V6 e pelo PoderService com NEXT VALUE FOR poderes_seq, direto na conexão
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "poderes_seq")
+    @SequenceGenerator(name = "poderes_seq", sequenceName = "poderes_seq", allocationSize = 50)
+    private Long id;
+
+    // Grafia da primeira ocorrência
+    @Column(nullable = false, length = 500)
+    private String nome;
+
+    @Column(nullable = false, length = 500, unique = true)
+    private String chave;
+
+    public Poder() {}
+
+    public Poder(String nome, String chave) {
+        this.nome = nome;
+        this.chave = chave;
+    }
+
+    // Chave de busca de um nome de poder
+    public static String chave(String nome) {
+        return ESPACOS.matcher(NormalizadorTexto.normalizar(nome).trim()).replaceAll(" ");
+    }
+
+    // Separa a lista em texto nos poderes distintos, na ordem em que aparecem: chave -> nome
+    public static Map<String, String> separar(String poderes) {
+        if (poderes == null || poderes.isBlank()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> separados = new LinkedHashMap<>();
+        for (String parte : SEPARADORES.split(poderes)) {
+            String nome = ESPACOS.matcher(parte.trim()).replaceAll(" ");
+            if (!nome.isEmpty()) {
+                separados.putIfAbsent(chave(nome), nome);
+            }
+        }
+        return separados;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getChave() {
+        return chave;
+    }
+}
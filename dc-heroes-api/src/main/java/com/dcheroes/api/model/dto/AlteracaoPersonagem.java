@@ -0,0 +1,40 @@
+package com.dcheroes.api.model.dto;
+
+import com.dcheroes.api.event.PersonagemAlteradoEvent;
+import com.dcheroes.api.model.Personagem;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Dados de um evento do fluxo de alterações (/alteracoes). A sequência do evento vai no
+ * campo "id" do próprio evento SSE.
+ */
+@Schema(description = "Alteração de personagem enviada pelo fluxo de alterações")
+public class AlteracaoPersonagem {
+
+    @Schema(description = "Tipo da alteração", example = "ATUALIZADO")
+    private final PersonagemAlteradoEvent.Tipo tipo;
+
+    @Schema(description = "ID do personagem alterado", example = "2")
+    private final Long id;
+
+    @Schema(description = "Estado do personagem após a alteração (nulo na remoção)")
+    private final Personagem personagem;
+
+    public AlteracaoPersonagem(PersonagemAlteradoEvent.Tipo tipo, Long id, Personagem personagem) {
+        this.tipo = tipo;
+        this.id = id;
+        this.personagem = personagem;
+    }
+
+    public PersonagemAlteradoEvent.Tipo getTipo() {
+        return tipo;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Personagem getPersonagem() {
+        return personagem;
+    }
+}
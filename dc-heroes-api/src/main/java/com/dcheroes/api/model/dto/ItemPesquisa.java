@@ -0,0 +1,30 @@
+package com.dcheroes.api.model.dto;
+
+import com.dcheroes.api.model.Personagem;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Personagem encontrado na pesquisa textual, com a relevância calculada pelo índice.
+ */
+@Schema(description = "Resultado da pesquisa textual")
+public class ItemPesquisa {
+
+    @Schema(description = "Relevância (BM25 ponderado por campo); maior é mais relevante", example = "7.42")
+    private final float relevancia;
+
+    @Schema(description = "Personagem encontrado")
+    private final Personagem personagem;
+
+    public ItemPesquisa(float relevancia, Personagem personagem) {
+        this.relevancia = relevancia;
+        this.personagem = personagem;
+    }
+
+    public float getRelevancia() {
+        return relevancia;
+    }
+
+    public Personagem getPersonagem() {
+        return personagem;
+    }
+}
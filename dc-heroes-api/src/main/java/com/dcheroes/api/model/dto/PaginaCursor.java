@@ -0,0 +1,83 @@
+package com.dcheroes.api.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados paginada por cursor (keyset).
+ * O cursor é opaco para o cliente: codifica o último ID entregue, e a próxima
+ * página é buscada com "id > cursor", sem OFFSET, mantendo o custo constante
+ * independentemente da profundidade da navegação.
+ */
+@Schema(description = "Página de resultados paginada por cursor")
+public class PaginaCursor<T> {
+
+    @Schema(description = "Itens da página atual")
+    private final List<T> itens;
+
+    @Schema(description = "Cursor opaco para buscar a próxima página (nulo na última página)")
+    private final String proximoCursor;
+
+    @Schema(description = "Quantidade máxima de itens por página", example = "20")
+    private final int limite;
+
+    public PaginaCursor(List<T> itens, String proximoCursor, int limite) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+        this.limite = limite;
+    }
+
+    // Monta a página a partir de uma consulta que buscou "limite + 1" itens:
+    // o item excedente só indica que existe uma próxima página
+    public static <T> PaginaCursor<T> de(List<T> resultado, int limite, Function<T, Long> extrairId) {
+        if (resultado.size() <= limite) {
+            return new PaginaCursor<>(resultado, null, limite);
+        }
+        List<T> itens = resultado.subList(0, limite);
+        Long ultimoId = extrairId.apply(itens.get(limite - 1));
+        return new PaginaCursor<>(itens, codificar(ultimoId), limite);
+    }
+
+    // Codifica o último ID entregue em um cursor opaco
+    public static String codificar(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Decodifica o cursor recebido; cursor ausente significa início da listagem
+    public static long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            long id = Long.parseLong(valor);
+            if (id < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    public boolean isTemMais() {
+        return proximoCursor != null;
+    }
+}
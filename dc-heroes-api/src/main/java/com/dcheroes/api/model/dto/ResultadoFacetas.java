@@ -0,0 +1,32 @@
+package com.dcheroes.api.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+/**
+ * Contagens agregadas de personagens por dimensão e valor.
+ */
+@Schema(description = "Contagens de personagens por dimensão")
+public class ResultadoFacetas {
+
+    @Schema(description = "Total de personagens considerados", example = "10")
+    private final long total;
+
+    @Schema(description = "Para cada dimensão, a quantidade de personagens por valor (ordenado pela contagem)",
+            example = "{\"afiliacao\": {\"Liga da Justiça\": 10}}")
+    private final Map<String, Map<String, Long>> facetas;
+
+    public ResultadoFacetas(long total, Map<String, Map<String, Long>> facetas) {
+        this.total = total;
+        this.facetas = facetas;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, Map<String, Long>> getFacetas() {
+        return facetas;
+    }
+}
@@ -0,0 +1,59 @@
+package com.dcheroes.api.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Resultado do processamento de um item de uma operação em lote.
+ * O índice corresponde à posição do item no corpo da requisição.
+ */
+@Schema(description = "Resultado de um item de uma operação em lote")
+public class ResultadoItemLote {
+
+    public enum Situacao {
+        CRIADO,
+        ATUALIZADO,
+        REMOVIDO,
+        NAO_ENCONTRADO,
+        INVALIDO,
+        ERRO
+    }
+
+    @Schema(description = "Posição do item na requisição (a partir de 0)", example = "0")
+    private final int indice;
+
+    @Schema(description = "ID do personagem afetado", example = "1")
+    private final Long id;
+
+    @Schema(description = "Situação do item após o processamento", example = "CRIADO")
+    private final Situacao situacao;
+
+    @Schema(description = "Detalhes do erro, quando houver")
+    private final String mensagem;
+
+    public ResultadoItemLote(int indice, Long id, Situacao situacao, String mensagem) {
+        this.indice = indice;
+        this.id = id;
+        this.situacao = situacao;
+        this.mensagem = mensagem;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Situacao getSituacao() {
+        return situacao;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public boolean isSucesso() {
+        return situacao == Situacao.CRIADO || situacao == Situacao.ATUALIZADO || situacao == Situacao.REMOVIDO;
+    }
+}
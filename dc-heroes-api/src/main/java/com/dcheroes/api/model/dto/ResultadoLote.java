@@ -0,0 +1,54 @@
+package com.dcheroes.api.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relatório de uma operação em lote, com o resultado de cada item enviado.
+ */
+@Schema(description = "Relatório de uma operação em lote")
+public class ResultadoLote {
+
+    @Schema(description = "Resultado de cada item, na ordem de processamento")
+    private final List<ResultadoItemLote> itens = new ArrayList<>();
+
+    @Schema(description = "Indica que o processamento foi interrompido por conteúdo ilegível")
+    private boolean interrompido;
+
+    public void adicionar(ResultadoItemLote item) {
+        itens.add(item);
+    }
+
+    public void adicionarTodos(List<ResultadoItemLote> resultados) {
+        itens.addAll(resultados);
+    }
+
+    public void interromper() {
+        this.interrompido = true;
+    }
+
+    public List<ResultadoItemLote> getItens() {
+        return itens;
+    }
+
+    public boolean isInterrompido() {
+        return interrompido;
+    }
+
+    @Schema(description = "Quantidade de itens processados", example = "100")
+    public int getTotal() {
+        return itens.size();
+    }
+
+    @Schema(description = "Quantidade de itens processados com sucesso", example = "98")
+    public long getSucessos() {
+        return itens.stream().filter(ResultadoItemLote::isSucesso).count();
+    }
+
+    @Schema(description = "Quantidade de itens com falha", example = "2")
+    public long getFalhas() {
+        return itens.size() - getSucessos();
+    }
+}
@@ -0,0 +1,29 @@
+package com.dcheroes.api.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Sugestão do autocompletar: apenas o necessário para exibir a opção e abrir o personagem.
+ */
+@Schema(description = "Sugestão de personagem para o autocompletar")
+public class Sugestao {
+
+    @Schema(description = "ID do personagem", example = "2")
+    private final long id;
+
+    @Schema(description = "Nome do personagem", example = "Batman")
+    private final String nome;
+
+    public Sugestao(long id, String nome) {
+        this.id = id;
+        this.nome = nome;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+}
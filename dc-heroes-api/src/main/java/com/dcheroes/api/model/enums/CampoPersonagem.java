@@ -0,0 +1,58 @@
+package com.dcheroes.api.model.enums;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Enumeração dos campos de personagem que podem ser pedidos em uma listagem parcial
+ * (?fields=). O nome usado na requisição e na resposta é o próprio atributo da entidade,
+ * o mesmo do JSON completo.
+ */
+public enum CampoPersonagem {
+    ID("id"),
+    NOME("nome"),
+    NOME_REAL("nomeReal"),
+    ORIGEM("origem"),
+    UNIVERSO("universo"),
+    PODERES("poderes"),
+    AFILIACAO("afiliacao"),
+    PRIMEIRA_APARICAO("primeiraAparicao"),
+    STATUS("status"),
+    DESCRICAO("descricao"),
+    IMAGEM_URL("imagemUrl"),
+    ALINHAMENTO("alinhamento"),
+    VERSAO("versao");
+
+    private final String atributo;
+
+    CampoPersonagem(String atributo) {
+        this.atributo = atributo;
+    }
+
+    public String getAtributo() {
+        return atributo;
+    }
+
+    // Converte o nome recebido na requisição (ex.: "imagemUrl") no campo correspondente
+    public static CampoPersonagem deNome(String nome) {
+        String procurado = nome.trim();
+        for (CampoPersonagem campo : values()) {
+            if (campo.atributo.equalsIgnoreCase(procurado)) {
+                return campo;
+            }
+        }
+        throw new IllegalArgumentException("Campo inválido: " + nome);
+    }
+
+    // Converte a lista separada por vírgulas; o ID é sempre incluído, pois identifica
+    // o item e serve de cursor na paginação
+    public static Set<CampoPersonagem> deLista(String campos) {
+        Set<CampoPersonagem> selecionados = EnumSet.of(ID);
+        for (String nome : campos.split(",")) {
+            if (!nome.isBlank()) {
+                selecionados.add(deNome(nome));
+            }
+        }
+        return selecionados;
+    }
+}
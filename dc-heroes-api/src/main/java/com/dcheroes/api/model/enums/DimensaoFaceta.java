@@ -0,0 +1,42 @@
+package com.dcheroes.api.model.enums;
+
+import com.dcheroes.api.model.Personagem;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Enumeração das dimensões disponíveis para contagem agregada (facetas) de personagens.
+ * Cada dimensão conhece o atributo da entidade usado no agrupamento.
+ */
+public enum DimensaoFaceta {
+    AFILIACAO("afiliacao", Personagem::getAfiliacao),
+    STATUS("status", p -> p.getStatus() != null ? p.getStatus().name() : null),
+    ALINHAMENTO("alinhamento", p -> p.getAlinhamento() != null ? p.getAlinhamento().name() : null),
+    UNIVERSO("universo", Personagem::getUniverso);
+
+    private final String atributo;
+    private final Function<Personagem, String> extrator;
+
+    DimensaoFaceta(String atributo, Function<Personagem, String> extrator) {
+        this.atributo = atributo;
+        this.extrator = extrator;
+    }
+
+    public String getAtributo() {
+        return atributo;
+    }
+
+    public String valor(Personagem personagem) {
+        return extrator.apply(personagem);
+    }
+
+    // Converte o nome recebido na requisição (ex.: "afiliacao") na dimensão correspondente
+    public static DimensaoFaceta deNome(String nome) {
+        try {
+            return valueOf(nome.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Dimensão de faceta inválida: " + nome);
+        }
+    }
+}
@@ -2,12 +2,17 @@ package com.dcheroes.api.repository;
 
 import com.dcheroes.api.model.Personagem;
 import com.dcheroes.api.model.StatusPersonagem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PersonagemRepository extends JpaRepository<Personagem, Long> {
@@ -27,16 +32,36 @@ public interface PersonagemRepository extends JpaRepository<Personagem, Long> {
     // Buscar personagens por origem
     List<Personagem> findByOrigemContainingIgnoreCase(String origem);
     
-    // Query customizada para buscar por múltiplos critérios
-    @Query("SELECT p FROM Personagem p WHERE " +
-           "(:nome IS NULL OR LOWER(p.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) AND " +
-           "(:afiliacao IS NULL OR p.afiliacao = :afiliacao) AND " +
-           "(:status IS NULL OR p.status = :status)")
-    List<Personagem> findByMultiplosCriterios(@Param("nome") String nome, 
-                                             @Param("afiliacao") String afiliacao, 
-                                             @Param("status") StatusPersonagem status);
-    
-    // Verificar se existe personagem com o nome
-    boolean existsByNomeIgnoreCase(String nome);
+    // Verificar se existe personagem com o nome (sem diferenciar maiúsculas/minúsculas).
+    // Usa a coluna gerada nome_lower, indexada, em vez de aplicar UPPER/LOWER a cada linha
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM personagens WHERE nome_lower = LOWER(:nome))", nativeQuery = true)
+    boolean existePorNome(@Param("nome") String nome);
+    
+    // Verificar se algum personagem usa a imagem (referências ao arquivo de upload)
+    boolean existsByImagemUrl(String imagemUrl);
+    
+    // Consultas paginadas por cursor (keyset): buscam apenas IDs maiores que o
+    // último entregue, ordenados por ID, e o Pageable limita a página sem OFFSET
+    List<Personagem> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pagina);
+    
+    List<Personagem> findByNomeContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String nome, Long id, Pageable pagina);
+    
+    List<Personagem> findByAfiliacaoAndIdGreaterThanOrderByIdAsc(String afiliacao, Long id, Pageable pagina);
+    
+    List<Personagem> findByStatusAndIdGreaterThanOrderByIdAsc(StatusPersonagem status, Long id, Pageable pagina);
+    
+    List<Personagem> findByNomeRealContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String nomeReal, Long id, Pageable pagina);
+    
+    List<Personagem> findByOrigemContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String origem, Long id, Pageable pagina);
+    
+    // Percorre todos os personagens em ordem de ID sem materializar a lista inteira.
+    // O fetch size faz o driver trazer as linhas em blocos e o read-only evita snapshots
+    // de dirty checking; deve ser consumido dentro de uma transação e fechado ao final
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p FROM Personagem p ORDER BY p.id")
+    Stream<Personagem> streamTodos();
 }
-
@@ -0,0 +1,33 @@
+package com.dcheroes.api.repository;
+
+import com.dcheroes.api.model.Poder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PoderRepository extends JpaRepository<Poder, Long> {
+    
+    // Buscar poder pela chave normalizada
+    Optional<Poder> findByChave(String chave);
+    
+    // IDs dos personagens com o poder, em ordem, após o cursor: percorre o índice
+    // (poder_id, personagem_id) a partir do ponto certo e para no limite
+    @Query(value = "SELECT personagem_id FROM personagem_poderes WHERE poder_id = :poderId AND personagem_id > :aposId " +
+            "ORDER BY personagem_id LIMIT :limite", nativeQuery = true)
+    List<Long> idsComPoder(@Param("poderId") Long poderId, @Param("aposId") long aposId, @Param("limite") int limite);
+    
+    // IDs dos personagens com todos os poderes: percorre os vínculos do primeiro poder pelo índice
+    // e confirma os demais pela chave primária (personagem_id, poder_id) de cada candidato
+    @Query(value = "SELECT v.personagem_id FROM personagem_poderes v WHERE v.poder_id = :primeiro AND v.personagem_id > :aposId " +
+            "AND (SELECT COUNT(*) FROM personagem_poderes o WHERE o.personagem_id = v.personagem_id AND o.poder_id IN (:outros)) = :quantidadeOutros " +
+            "ORDER BY v.personagem_id LIMIT :limite", nativeQuery = true)
+    List<Long> idsComTodosPoderes(@Param("primeiro") Long primeiro, @Param("outros") Collection<Long> outros,
+                                  @Param("quantidadeOutros") int quantidadeOutros, @Param("aposId") long aposId,
+                                  @Param("limite") int limite);
+}
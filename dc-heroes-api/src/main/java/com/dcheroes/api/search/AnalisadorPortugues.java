@@ -0,0 +1,36 @@
+package com.dcheroes.api.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.pt.PortugueseAnalyzer;
+import org.apache.lucene.analysis.pt.PortugueseLightStemFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+/**
+ * Análise de texto em português para a pesquisa textual: separa as palavras, converte para
+ * minúsculas, descarta palavras vazias ("de", "da", "com"...), remove acentos e reduz cada
+ * palavra ao radical, de forma que "Visão de Calor", "visao" e "visões" se encontrem.
+ *
+ * As palavras vazias são removidas antes dos acentos, pois a lista padrão é acentuada ("não", "à").
+ */
+final class AnalisadorPortugues extends Analyzer {
+
+    @Override
+    protected TokenStreamComponents createComponents(String campo) {
+        Tokenizer tokenizer = new StandardTokenizer();
+        TokenStream fluxo = new LowerCaseFilter(tokenizer);
+        fluxo = new StopFilter(fluxo, PortugueseAnalyzer.getDefaultStopSet());
+        fluxo = new ASCIIFoldingFilter(fluxo);
+        fluxo = new PortugueseLightStemFilter(fluxo);
+        return new TokenStreamComponents(tokenizer, fluxo);
+    }
+
+    @Override
+    protected TokenStream normalize(String campo, TokenStream entrada) {
+        return new ASCIIFoldingFilter(new LowerCaseFilter(entrada));
+    }
+}
@@ -0,0 +1,26 @@
+package com.dcheroes.api.search;
+
+import com.dcheroes.api.model.Personagem;
+
+import java.util.function.Function;
+
+/**
+ * Campos textuais de personagem cobertos pelo índice de trigramas.
+ */
+public enum CampoBusca {
+    NOME(Personagem::getNome),
+    NOME_REAL(Personagem::getNomeReal),
+    ORIGEM(Personagem::getOrigem),
+    PODERES(Personagem::getPoderes),
+    DESCRICAO(Personagem::getDescricao);
+
+    private final Function<Personagem, String> extrator;
+
+    CampoBusca(Function<Personagem, String> extrator) {
+        this.extrator = extrator;
+    }
+
+    public String valor(Personagem personagem) {
+        return extrator.apply(personagem);
+    }
+}
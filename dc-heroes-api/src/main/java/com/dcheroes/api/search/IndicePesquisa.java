@@ -0,0 +1,339 @@
+package com.dcheroes.api.search;
+
+import com.dcheroes.api.config.DataInitializer;
+import com.dcheroes.api.event.PersonagemAlteradoEvent;
+import com.dcheroes.api.exception.IndiceIndisponivelException;
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.repository.PersonagemRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.similarities.BM25Similarity;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Índice textual (Lucene) para pesquisa por relevância nos campos textuais de personagem.
+ *
+ * O texto passa pelo {@link AnalisadorPortugues} e a relevância é o BM25 de cada campo,
+ * com pesos maiores para nome e nome real que para poderes e descrição. O índice fica em
+ * disco (mapeado em memória pelo sistema operacional), é recriado a partir do banco ao fim
+ * da carga inicial de dados e mantido pelos eventos de alteração. Os eventos entram em uma fila e são
+ * aplicados em lote por uma única thread, que publica as alterações para as pesquisas ao
+ * fim de cada lote; assim a gravação no banco não espera a indexação.
+ */
+@Component
+public class IndicePesquisa {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicePesquisa.class);
+
+    private static final int BLOCO_LEITURA = 500;
+    private static final String CAMPO_ID = "id";
+
+    // Peso de cada campo na relevância: um termo no nome vale mais que o mesmo termo na descrição
+    private static final Map<CampoBusca, Float> PESOS = new EnumMap<>(CampoBusca.class);
+
+    static {
+        PESOS.put(CampoBusca.NOME, 4.0f);
+        PESOS.put(CampoBusca.NOME_REAL, 3.0f);
+        PESOS.put(CampoBusca.PODERES, 2.0f);
+        PESOS.put(CampoBusca.ORIGEM, 1.5f);
+        PESOS.put(CampoBusca.DESCRICAO, 1.0f);
+    }
+
+    @Autowired
+    private PersonagemRepository personagemRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    private final TransactionTemplate transacaoLeitura;
+    private final Path diretorio;
+    private final AnalisadorPortugues analisador = new AnalisadorPortugues();
+    private final QueryBuilder construtorConsultas = new QueryBuilder(analisador);
+    private final Queue<PersonagemAlteradoEvent> fila = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean aplicacaoAgendada = new AtomicBoolean();
+    private final ExecutorService indexacao = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "indice-pesquisa");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Criados pela carga inicial, na thread de indexação
+    private Directory diretorioIndice;
+    private IndexWriter escritor;
+    private volatile SearcherManager buscadores;
+
+    public IndicePesquisa(PlatformTransactionManager transactionManager,
+                          @Value("${app.pesquisa.diretorio:data/indice-pesquisa}") String diretorio) {
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        this.diretorio = Path.of(diretorio);
+    }
+
+    // Indica se o índice já foi carregado; antes disso as pesquisas são recusadas
+    public boolean isPronto() {
+        return buscadores != null;
+    }
+
+    // Pesquisa o texto em todos os campos e retorna até "limite" acertos em ordem de relevância,
+    // a partir da posição indicada pelo cursor da página anterior
+    public PaginaAcertos pesquisar(String texto, String cursor, int limite) {
+        SearcherManager gerenciador = buscadores;
+        if (gerenciador == null) {
+            throw new IndiceIndisponivelException("O índice de pesquisa ainda está sendo carregado");
+        }
+        Query consulta = montarConsulta(texto);
+        if (consulta == null) {
+            return new PaginaAcertos(List.of(), null);
+        }
+        try {
+            IndexSearcher buscador = gerenciador.acquire();
+            try {
+                ScoreDoc apos = decodificarCursor(cursor, buscador.getIndexReader().maxDoc());
+                TopDocs resultado = buscador.searchAfter(apos, consulta, limite + 1);
+                ScoreDoc[] encontrados = resultado.scoreDocs;
+                int quantidade = Math.min(encontrados.length, limite);
+                List<Acerto> acertos = new ArrayList<>(quantidade);
+                List<LeafReaderContext> segmentos = buscador.getIndexReader().leaves();
+                for (int i = 0; i < quantidade; i++) {
+                    acertos.add(new Acerto(lerId(segmentos, encontrados[i].doc), encontrados[i].score));
+                }
+                String proximoCursor = encontrados.length > limite ? codificarCursor(encontrados[limite - 1]) : null;
+                return new PaginaAcertos(acertos, proximoCursor);
+            } finally {
+                gerenciador.release(buscador);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarPersonagem(PersonagemAlteradoEvent evento) {
+        fila.add(evento);
+        agendarAplicacao();
+    }
+
+    // A carga inicial de dados não publica eventos por personagem: o índice é criado depois dela
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciarAplicacao() {
+        dataInitializer.getConclusao().whenComplete((criados, erro) -> indexacao.execute(() -> {
+            try {
+                carregar();
+            } catch (IOException | RuntimeException e) {
+                log.error("Falha ao carregar o índice de pesquisa", e);
+            }
+        }));
+    }
+
+    // Cada termo do texto pode aparecer em qualquer campo; os campos entram com seus pesos e
+    // a relevância soma as ocorrências. Retorna nulo se o texto só tiver palavras vazias
+    private Query montarConsulta(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        BooleanQuery.Builder consulta = new BooleanQuery.Builder();
+        boolean algumTermo = false;
+        for (CampoBusca campo : CampoBusca.values()) {
+            Query porCampo = construtorConsultas.createBooleanQuery(campo.name(), texto, BooleanClause.Occur.SHOULD);
+            if (porCampo != null) {
+                consulta.add(new BoostQuery(porCampo, PESOS.get(campo)), BooleanClause.Occur.SHOULD);
+                algumTermo = true;
+            }
+        }
+        return algumTermo ? consulta.build() : null;
+    }
+
+    // Recria o índice com todos os personagens do banco. Alterações feitas durante a leitura
+    // ficam na fila e são aplicadas em seguida, nesta mesma thread
+    private void carregar() throws IOException {
+        long inicio = System.nanoTime();
+        diretorioIndice = FSDirectory.open(diretorio);
+        IndexWriterConfig configuracao = new IndexWriterConfig(analisador)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE)
+                .setSimilarity(new BM25Similarity())
+                .setRAMBufferSizeMB(64)
+                .setCommitOnClose(false);
+        escritor = new IndexWriter(diretorioIndice, configuracao);
+
+        long[] total = new long[1];
+        transacaoLeitura.executeWithoutResult(status -> {
+            try (Stream<Personagem> personagens = personagemRepository.streamTodos()) {
+                Iterator<Personagem> iterador = personagens.iterator();
+                while (iterador.hasNext()) {
+                    escritor.addDocument(documento(iterador.next()));
+                    if (++total[0] % BLOCO_LEITURA == 0) {
+                        entityManager.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        escritor.commit();
+
+        SearcherManager gerenciador = new SearcherManager(escritor, null);
+        buscadores = gerenciador;
+        log.info("Índice de pesquisa carregado: {} personagens em {} ms",
+                total[0], (System.nanoTime() - inicio) / 1_000_000);
+        aplicarPendentes();
+    }
+
+    private void agendarAplicacao() {
+        if (aplicacaoAgendada.compareAndSet(false, true)) {
+            indexacao.execute(() -> {
+                aplicacaoAgendada.set(false);
+                try {
+                    aplicarPendentes();
+                } catch (IOException | RuntimeException e) {
+                    log.error("Falha ao atualizar o índice de pesquisa", e);
+                }
+            });
+        }
+    }
+
+    // Aplica tudo o que estiver na fila e torna o resultado visível às pesquisas de uma vez.
+    // Antes da carga inicial os eventos continuam na fila, pois a carga os aplicará
+    private void aplicarPendentes() throws IOException {
+        if (buscadores == null) {
+            return;
+        }
+        int aplicados = 0;
+        PersonagemAlteradoEvent evento;
+        while ((evento = fila.poll()) != null) {
+            Term id = new Term(CAMPO_ID, evento.getId().toString());
+            if (evento.getTipo() == PersonagemAlteradoEvent.Tipo.REMOVIDO) {
+                escritor.deleteDocuments(id);
+            } else {
+                escritor.updateDocument(id, documento(evento.getAtual()));
+            }
+            aplicados++;
+        }
+        if (aplicados > 0) {
+            buscadores.maybeRefresh();
+        }
+    }
+
+    private static Document documento(Personagem personagem) {
+        Document documento = new Document();
+        documento.add(new StringField(CAMPO_ID, personagem.getId().toString(), Field.Store.NO));
+        documento.add(new NumericDocValuesField(CAMPO_ID, personagem.getId()));
+        for (CampoBusca campo : CampoBusca.values()) {
+            String valor = campo.valor(personagem);
+            if (valor != null) {
+                documento.add(new TextField(campo.name(), valor, Field.Store.NO));
+            }
+        }
+        return documento;
+    }
+
+    private static long lerId(List<LeafReaderContext> segmentos, int doc) throws IOException {
+        LeafReaderContext segmento = segmentos.get(ReaderUtil.subIndex(doc, segmentos));
+        NumericDocValues ids = DocValues.getNumeric(segmento.reader(), CAMPO_ID);
+        if (!ids.advanceExact(doc - segmento.docBase)) {
+            throw new IllegalStateException("Documento sem ID no índice de pesquisa: " + doc);
+        }
+        return ids.longValue();
+    }
+
+    // O cursor guarda a relevância exata e a posição do último acerto entregue. A posição é a do
+    // documento no índice, que só desempata acertos de mesma relevância; se o índice mudar entre
+    // duas páginas, a ordem pode variar como variam as próprias relevâncias
+    private static String codificarCursor(ScoreDoc ultimo) {
+        String valor = Integer.toHexString(Float.floatToIntBits(ultimo.score)) + ":" + ultimo.doc;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ScoreDoc decodificarCursor(String cursor, int totalDocumentos) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(':');
+            float relevancia = Float.intBitsToFloat(Integer.parseUnsignedInt(valor.substring(0, separador), 16));
+            int doc = Integer.parseInt(valor.substring(separador + 1));
+            if (doc < 0 || Float.isNaN(relevancia)) {
+                throw new IllegalArgumentException("Cursor inválido: " + cursor);
+            }
+            return new ScoreDoc(Math.min(doc, Math.max(0, totalDocumentos - 1)), relevancia);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + cursor, e);
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() throws IOException, InterruptedException {
+        // Sem interromper a thread de indexação: o Lucene não tolera interrupções durante a escrita
+        indexacao.shutdown();
+        indexacao.awaitTermination(5, TimeUnit.SECONDS);
+        if (buscadores != null) {
+            buscadores.close();
+        }
+        if (escritor != null) {
+            escritor.close();
+        }
+        if (diretorioIndice != null) {
+            diretorioIndice.close();
+        }
+    }
+
+    // Acerto da pesquisa: ID do personagem e relevância
+    public record Acerto(long id, float relevancia) {}
+
+    // Acertos de uma página, em ordem de relevância, e o cursor da próxima (nulo na última)
+    public record PaginaAcertos(List<Acerto> acertos, String proximoCursor) {}
+}
@@ -0,0 +1,536 @@
+package com.dcheroes.api.search;
+
+import com.dcheroes.api.config.DataInitializer;
+import com.dcheroes.api.event.PersonagemAlteradoEvent;
+import com.dcheroes.api.exception.IndiceIndisponivelException;
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.model.dto.Sugestao;
+import com.dcheroes.api.repository.PersonagemRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Árvore de prefixos (trie) em memória para o autocompletar, sobre nome e nome real
+ * normalizados (sem acentos, em minúsculas).
+ *
+ * Cada nó guarda as melhores sugestões da sua subárvore, ordenadas pela popularidade
+ * (acessos por ID) e, em empate, pelo nome mais curto; uma consulta só desce pelos
+ * caracteres do prefixo e devolve a lista pronta do nó. Subárvores pequenas ficam em
+ * um "balde" com os termos completos, filtrados na consulta, em vez de um nó por
+ * caractere, o que mantém a árvore compacta com nomes únicos. A árvore é carregada do
+ * banco ao fim da carga inicial de dados e mantida pelos eventos de alteração; os acessos são somados
+ * à popularidade periodicamente, fora do caminho da leitura.
+ */
+@Component
+public class IndiceSugestoes {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceSugestoes.class);
+
+    private static final int BLOCO_LEITURA = 500;
+
+    // Termos guardados em um nó antes de ele ser dividido por caractere
+    private static final int CAPACIDADE_BALDE = 16;
+
+    // Mais popular primeiro; em empate, o nome mais curto (o mais próximo do que foi digitado)
+    private static final Comparator<Termo> ORDEM = Comparator
+            .comparingLong((Termo termo) -> -termo.documento.peso)
+            .thenComparingInt(termo -> termo.chave.length())
+            .thenComparingLong(termo -> termo.documento.id)
+            .thenComparingInt(termo -> termo.posicao);
+
+    @Autowired
+    private PersonagemRepository personagemRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    private final TransactionTemplate transacaoLeitura;
+    private final int limiteMaximo;
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private final ExecutorService reconstrucao = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "indice-sugestoes");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<Long, LongAdder> acessos = new ConcurrentHashMap<>();
+
+    private Estrutura estrutura;
+    private List<PersonagemAlteradoEvent> pendentes;
+    private volatile boolean pronto;
+
+    public IndiceSugestoes(PlatformTransactionManager transactionManager,
+                           @Value("${app.sugestoes.limite-maximo:10}") int limiteMaximo) {
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+        this.limiteMaximo = limiteMaximo;
+        this.estrutura = new Estrutura(limiteMaximo);
+    }
+
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    // Até "limite" personagens cujo nome ou nome real começa com o prefixo, dos mais populares
+    // para os menos. Um limite nulo ou fora da faixa usa o máximo configurado
+    public List<Sugestao> sugerir(String prefixo, Integer limite) {
+        if (!pronto) {
+            throw new IndiceIndisponivelException("O índice de sugestões ainda está sendo carregado");
+        }
+        String normalizado = prefixo != null ? NormalizadorTexto.normalizar(prefixo.stripLeading()) : "";
+        if (normalizado.isEmpty()) {
+            return List.of();
+        }
+        int maximo = limite == null || limite <= 0 ? limiteMaximo : Math.min(limite, limiteMaximo);
+        trava.readLock().lock();
+        try {
+            return estrutura.sugerir(normalizado, maximo);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Conta um acesso ao personagem; chamado a cada leitura por ID, inclusive as respondidas pelo cache.
+    // Só conta personagens indexados, para que leituras de IDs inexistentes não acumulem no mapa
+    public void registrarAcesso(Long id) {
+        trava.readLock().lock();
+        try {
+            if (!estrutura.documentos.containsKey(id)) {
+                return;
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        acessos.computeIfAbsent(id, chave -> new LongAdder()).increment();
+    }
+
+    // Soma os acessos acumulados à popularidade e reposiciona os personagens afetados na árvore
+    @Scheduled(fixedDelayString = "${app.sugestoes.intervalo-popularidade-ms:30000}")
+    public void aplicarPopularidade() {
+        if (acessos.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> contagens = new HashMap<>();
+        for (Iterator<Map.Entry<Long, LongAdder>> iterador = acessos.entrySet().iterator(); iterador.hasNext(); ) {
+            Map.Entry<Long, LongAdder> acesso = iterador.next();
+            iterador.remove();
+            contagens.put(acesso.getKey(), acesso.getValue().sum());
+        }
+        trava.writeLock().lock();
+        try {
+            // Durante a carga inicial a árvore ainda não tem os personagens: os acessos são descartados
+            if (pronto) {
+                contagens.forEach(estrutura::somarPeso);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarPersonagem(PersonagemAlteradoEvent evento) {
+        trava.writeLock().lock();
+        try {
+            if (pendentes != null) {
+                pendentes.add(evento);
+            }
+            estrutura.aplicar(evento);
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    // Carrega a árvore a partir do banco em segundo plano, depois da carga inicial de dados (que
+    // não publica eventos por personagem). Alterações ocorridas durante a leitura são guardadas
+    // e reaplicadas ao final
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciarAplicacao() {
+        dataInitializer.getConclusao().whenComplete((criados, erro) -> reconstrucao.execute(() -> {
+            try {
+                carregar();
+            } catch (RuntimeException e) {
+                log.error("Falha ao carregar o índice de sugestões", e);
+            }
+        }));
+    }
+
+    private void carregar() {
+        long inicio = System.nanoTime();
+        trava.writeLock().lock();
+        try {
+            pendentes = new ArrayList<>();
+        } finally {
+            trava.writeLock().unlock();
+        }
+
+        Estrutura nova = new Estrutura(limiteMaximo);
+        try {
+            transacaoLeitura.executeWithoutResult(status -> {
+                try (Stream<Personagem> personagens = personagemRepository.streamTodos()) {
+                    Iterator<Personagem> iterador = personagens.iterator();
+                    int lidos = 0;
+                    while (iterador.hasNext()) {
+                        nova.indexar(iterador.next());
+                        if (++lidos % BLOCO_LEITURA == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            trava.writeLock().lock();
+            try {
+                pendentes = null;
+            } finally {
+                trava.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        trava.writeLock().lock();
+        try {
+            for (PersonagemAlteradoEvent evento : pendentes) {
+                nova.aplicar(evento);
+            }
+            pendentes = null;
+            estrutura = nova;
+            pronto = true;
+        } finally {
+            trava.writeLock().unlock();
+        }
+        log.info("Índice de sugestões carregado: {} personagens em {} ms",
+                nova.documentos.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        reconstrucao.shutdownNow();
+    }
+
+    // Personagem indexado: nome exibido, popularidade e os termos (nome e nome real normalizados)
+    private static final class Documento {
+        private final long id;
+        private String nome;
+        private long peso;
+        private Termo[] termos;
+
+        private Documento(long id) {
+            this.id = id;
+        }
+    }
+
+    // Chave pesquisável de um documento; a posição distingue nome (0) e nome real (1)
+    private static final class Termo {
+        private final String chave;
+        private final Documento documento;
+        private final int posicao;
+
+        private Termo(String chave, Documento documento, int posicao) {
+            this.chave = chave;
+            this.documento = documento;
+            this.posicao = posicao;
+        }
+    }
+
+    // Nó da árvore. Enquanto "balde" não for nulo, o nó é uma folha com os termos da subárvore;
+    // depois de dividido, cada termo segue para o filho do próximo caractere ou, se a chave
+    // termina no nó, fica em "terminais"
+    private static final class No {
+        private static final char[] SEM_ROTULOS = new char[0];
+        private static final No[] SEM_FILHOS = new No[0];
+        private static final Termo[] SEM_TERMOS = new Termo[0];
+
+        private char[] rotulos = SEM_ROTULOS;
+        private No[] filhos = SEM_FILHOS;
+        private List<Termo> balde = new ArrayList<>(4);
+        private TreeSet<Termo> terminais;
+        // Melhores termos da subárvore, em ordem
+        private Termo[] melhores = SEM_TERMOS;
+
+        private No filho(char caractere) {
+            int posicao = Arrays.binarySearch(rotulos, caractere);
+            return posicao >= 0 ? filhos[posicao] : null;
+        }
+
+        private No criarFilho(char caractere) {
+            int posicao = -Arrays.binarySearch(rotulos, caractere) - 1;
+            char[] novosRotulos = new char[rotulos.length + 1];
+            No[] novosFilhos = new No[filhos.length + 1];
+            System.arraycopy(rotulos, 0, novosRotulos, 0, posicao);
+            System.arraycopy(filhos, 0, novosFilhos, 0, posicao);
+            System.arraycopy(rotulos, posicao, novosRotulos, posicao + 1, rotulos.length - posicao);
+            System.arraycopy(filhos, posicao, novosFilhos, posicao + 1, filhos.length - posicao);
+            No filho = new No();
+            novosRotulos[posicao] = caractere;
+            novosFilhos[posicao] = filho;
+            rotulos = novosRotulos;
+            filhos = novosFilhos;
+            return filho;
+        }
+
+        // Inclui o termo entre os melhores se ele superar o último (ou houver espaço)
+        private void promover(Termo termo, int capacidade) {
+            for (Termo existente : melhores) {
+                if (existente == termo) {
+                    return;
+                }
+            }
+            int posicao = 0;
+            while (posicao < melhores.length && ORDEM.compare(melhores[posicao], termo) < 0) {
+                posicao++;
+            }
+            if (posicao >= capacidade) {
+                return;
+            }
+            int tamanho = Math.min(melhores.length + 1, capacidade);
+            Termo[] novos = new Termo[tamanho];
+            System.arraycopy(melhores, 0, novos, 0, posicao);
+            novos[posicao] = termo;
+            System.arraycopy(melhores, posicao, novos, posicao + 1, tamanho - posicao - 1);
+            melhores = novos;
+        }
+
+        private boolean entreMelhores(Termo termo) {
+            for (Termo existente : melhores) {
+                if (existente == termo) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Recalcula os melhores a partir do balde ou dos terminais e dos melhores de cada filho
+        private void recalcular(int capacidade) {
+            List<Termo> candidatos = new ArrayList<>();
+            if (balde != null) {
+                candidatos.addAll(balde);
+            } else {
+                if (terminais != null) {
+                    Iterator<Termo> iterador = terminais.iterator();
+                    for (int i = 0; i < capacidade && iterador.hasNext(); i++) {
+                        candidatos.add(iterador.next());
+                    }
+                }
+                for (No filho : filhos) {
+                    candidatos.addAll(Arrays.asList(filho.melhores));
+                }
+            }
+            candidatos.sort(ORDEM);
+            melhores = candidatos.subList(0, Math.min(capacidade, candidatos.size())).toArray(SEM_TERMOS);
+        }
+    }
+
+    // Conteúdo do índice; trocado por inteiro ao final da carga inicial
+    private static final class Estrutura {
+
+        private final No raiz = new No();
+        private final Map<Long, Documento> documentos = new HashMap<>();
+        private final int capacidade;
+
+        private Estrutura(int capacidade) {
+            this.capacidade = capacidade;
+        }
+
+        private void aplicar(PersonagemAlteradoEvent evento) {
+            if (evento.getTipo() == PersonagemAlteradoEvent.Tipo.REMOVIDO) {
+                Documento documento = documentos.remove(evento.getId());
+                if (documento != null) {
+                    retirar(documento);
+                }
+            } else {
+                indexar(evento.getAtual());
+            }
+        }
+
+        private void indexar(Personagem personagem) {
+            String nome = NormalizadorTexto.normalizar(personagem.getNome());
+            String nomeReal = NormalizadorTexto.normalizar(personagem.getNomeReal());
+            Documento documento = documentos.get(personagem.getId());
+            if (documento == null) {
+                documento = new Documento(personagem.getId());
+                documentos.put(personagem.getId(), documento);
+            } else if (mesmasChaves(documento.termos, nome, nomeReal)) {
+                documento.nome = personagem.getNome();
+                return;
+            } else {
+                retirar(documento);
+            }
+            documento.nome = personagem.getNome();
+            List<Termo> termos = new ArrayList<>(2);
+            if (nome != null && !nome.isBlank()) {
+                termos.add(new Termo(nome, documento, 0));
+            }
+            if (nomeReal != null && !nomeReal.isBlank() && !nomeReal.equals(nome)) {
+                termos.add(new Termo(nomeReal, documento, 1));
+            }
+            documento.termos = termos.toArray(No.SEM_TERMOS);
+            inserir(documento);
+        }
+
+        private void somarPeso(Long id, Long acessos) {
+            Documento documento = documentos.get(id);
+            if (documento == null) {
+                return;
+            }
+            // O peso faz parte da ordem dos conjuntos e listas: sai da árvore antes de mudar
+            retirar(documento);
+            documento.peso += acessos;
+            inserir(documento);
+        }
+
+        private List<Sugestao> sugerir(String prefixo, int limite) {
+            No no = raiz;
+            for (int profundidade = 0; profundidade < prefixo.length(); profundidade++) {
+                if (no.balde != null) {
+                    List<Termo> candidatos = new ArrayList<>();
+                    for (Termo termo : no.balde) {
+                        if (termo.chave.startsWith(prefixo)) {
+                            candidatos.add(termo);
+                        }
+                    }
+                    candidatos.sort(ORDEM);
+                    return coletar(candidatos, limite);
+                }
+                no = no.filho(prefixo.charAt(profundidade));
+                if (no == null) {
+                    return List.of();
+                }
+            }
+            return coletar(Arrays.asList(no.melhores), limite);
+        }
+
+        // Um personagem pode aparecer pelo nome e pelo nome real: só a primeira ocorrência conta
+        private static List<Sugestao> coletar(List<Termo> termos, int limite) {
+            List<Sugestao> sugestoes = new ArrayList<>(Math.min(limite, termos.size()));
+            Set<Long> vistos = new HashSet<>();
+            for (Termo termo : termos) {
+                if (sugestoes.size() >= limite) {
+                    break;
+                }
+                if (vistos.add(termo.documento.id)) {
+                    sugestoes.add(new Sugestao(termo.documento.id, termo.documento.nome));
+                }
+            }
+            return sugestoes;
+        }
+
+        private void inserir(Documento documento) {
+            for (Termo termo : documento.termos) {
+                inserir(raiz, 0, termo);
+            }
+        }
+
+        // Desce pelos caracteres da chave promovendo o termo em cada nó do caminho
+        private void inserir(No inicio, int profundidadeInicial, Termo termo) {
+            No no = inicio;
+            int profundidade = profundidadeInicial;
+            while (true) {
+                no.promover(termo, capacidade);
+                if (no.balde != null) {
+                    no.balde.add(termo);
+                    if (no.balde.size() > CAPACIDADE_BALDE) {
+                        dividir(no, profundidade);
+                    }
+                    return;
+                }
+                if (profundidade == termo.chave.length()) {
+                    if (no.terminais == null) {
+                        no.terminais = new TreeSet<>(ORDEM);
+                    }
+                    no.terminais.add(termo);
+                    return;
+                }
+                char caractere = termo.chave.charAt(profundidade);
+                No filho = no.filho(caractere);
+                no = filho != null ? filho : no.criarFilho(caractere);
+                profundidade++;
+            }
+        }
+
+        private void dividir(No no, int profundidade) {
+            List<Termo> termos = no.balde;
+            no.balde = null;
+            for (Termo termo : termos) {
+                inserir(no, profundidade, termo);
+            }
+        }
+
+        private void retirar(Documento documento) {
+            for (Termo termo : documento.termos) {
+                retirar(termo);
+            }
+        }
+
+        // Remove o termo e recalcula os melhores de baixo para cima. Um nó em que o termo não
+        // está entre os melhores não o tem também nos ancestrais, que disputam com mais termos
+        private void retirar(Termo termo) {
+            List<No> caminho = new ArrayList<>();
+            No no = raiz;
+            int profundidade = 0;
+            while (no != null) {
+                caminho.add(no);
+                if (no.balde != null) {
+                    no.balde.remove(termo);
+                    break;
+                }
+                if (profundidade == termo.chave.length()) {
+                    no.terminais.remove(termo);
+                    break;
+                }
+                no = no.filho(termo.chave.charAt(profundidade++));
+            }
+            for (int i = caminho.size() - 1; i >= 0; i--) {
+                No atual = caminho.get(i);
+                if (!atual.entreMelhores(termo)) {
+                    break;
+                }
+                atual.recalcular(capacidade);
+            }
+        }
+
+        private static boolean mesmasChaves(Termo[] termos, String nome, String nomeReal) {
+            String[] esperadas = nomeReal != null && !nomeReal.isBlank() && !nomeReal.equals(nome)
+                    ? new String[]{nome, nomeReal} : new String[]{nome};
+            if (termos.length != esperadas.length) {
+                return false;
+            }
+            for (int i = 0; i < termos.length; i++) {
+                if (!termos[i].chave.equals(esperadas[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
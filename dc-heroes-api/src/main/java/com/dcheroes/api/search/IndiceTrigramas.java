@@ -0,0 +1,333 @@
+package com.dcheroes.api.search;
+
+import com.dcheroes.api.cache.VersaoPersonagens;
+import com.dcheroes.api.config.DataInitializer;
+import com.dcheroes.api.event.PersonagemAlteradoEvent;
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.repository.PersonagemRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido de trigramas em memória para busca por substring nos campos
+ * textuais de personagem, sem acentos e sem diferenciar maiúsculas/minúsculas.
+ *
+ * Cada campo tem um mapa trigrama -> lista ordenada de IDs. Uma busca intersecta as
+ * listas dos trigramas do termo, começando pela menor, e confirma cada candidato
+ * contra o texto normalizado do documento. O índice é reconstruído a partir do banco
+ * ao fim da carga inicial de dados e mantido incrementalmente pelos eventos de alteração; entradas
+ * obsoletas deixadas por atualizações são descartadas em reconstruções periódicas.
+ */
+@Component
+public class IndiceTrigramas {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceTrigramas.class);
+
+    private static final int BLOCO_LEITURA = 500;
+    private static final long MINIMO_OBSOLETAS_PARA_COMPACTAR = 100_000;
+
+    @Autowired
+    private PersonagemRepository personagemRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    private final TransactionTemplate transacaoLeitura;
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private final ExecutorService reconstrucao = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "indice-trigramas");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean reconstrucaoAgendada = new AtomicBoolean();
+
+    private Estrutura estrutura = new Estrutura();
+    private List<PersonagemAlteradoEvent> pendentes;
+    private volatile boolean pronto;
+
+    public IndiceTrigramas(PlatformTransactionManager transactionManager) {
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+    }
+
+    // Indica se o índice já foi carregado; antes disso as buscas devem ir ao banco
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    // Retorna, em ordem crescente, os IDs após "aposId" cujo campo contém o termo.
+    // Um limite menor ou igual a zero retorna todos os resultados
+    public List<Long> buscar(CampoBusca campo, String termo, long aposId, int limite) {
+        String normalizado = termo != null ? NormalizadorTexto.normalizar(termo) : "";
+        int maximo = limite > 0 ? limite : Integer.MAX_VALUE;
+        trava.readLock().lock();
+        try {
+            if (normalizado.length() < 3) {
+                return varrerDocumentos(campo, normalizado, aposId, maximo);
+            }
+            return intersectar(campo, normalizado, aposId, maximo);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    public int getTotalDocumentos() {
+        trava.readLock().lock();
+        try {
+            return estrutura.documentos.size();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    @Order(VersaoPersonagens.ORDEM_ANTES_DA_VERSAO)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarPersonagem(PersonagemAlteradoEvent evento) {
+        boolean compactar;
+        trava.writeLock().lock();
+        try {
+            if (pendentes != null) {
+                pendentes.add(evento);
+            }
+            estrutura.aplicar(evento);
+            compactar = estrutura.precisaCompactar();
+        } finally {
+            trava.writeLock().unlock();
+        }
+        if (compactar) {
+            agendarReconstrucao();
+        }
+    }
+
+    // A carga inicial de dados não publica eventos por personagem: o índice é carregado depois dela
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciarAplicacao() {
+        dataInitializer.getConclusao().whenComplete((criados, erro) -> agendarReconstrucao());
+    }
+
+    // Reconstrói o índice a partir do banco em segundo plano, sem bloquear as buscas.
+    // Alterações ocorridas durante a leitura são guardadas e reaplicadas ao final
+    public void agendarReconstrucao() {
+        if (reconstrucaoAgendada.compareAndSet(false, true)) {
+            reconstrucao.execute(() -> {
+                try {
+                    reconstruir();
+                } catch (RuntimeException e) {
+                    log.error("Falha ao reconstruir o índice de trigramas", e);
+                } finally {
+                    reconstrucaoAgendada.set(false);
+                }
+            });
+        }
+    }
+
+    private void reconstruir() {
+        long inicio = System.nanoTime();
+        trava.writeLock().lock();
+        try {
+            pendentes = new ArrayList<>();
+        } finally {
+            trava.writeLock().unlock();
+        }
+
+        Estrutura nova = new Estrutura();
+        try {
+            transacaoLeitura.executeWithoutResult(status -> {
+                try (Stream<Personagem> personagens = personagemRepository.streamTodos()) {
+                    Iterator<Personagem> iterador = personagens.iterator();
+                    int lidos = 0;
+                    while (iterador.hasNext()) {
+                        nova.indexar(iterador.next());
+                        if (++lidos % BLOCO_LEITURA == 0) {
+                            entityManager.clear();
+                        }
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            trava.writeLock().lock();
+            try {
+                pendentes = null;
+            } finally {
+                trava.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        trava.writeLock().lock();
+        try {
+            for (PersonagemAlteradoEvent evento : pendentes) {
+                nova.aplicar(evento);
+            }
+            pendentes = null;
+            estrutura = nova;
+            pronto = true;
+        } finally {
+            trava.writeLock().unlock();
+        }
+        log.info("Índice de trigramas carregado: {} personagens em {} ms",
+                nova.documentos.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    // Termos com menos de 3 caracteres não formam trigramas: percorre os textos normalizados
+    private List<Long> varrerDocumentos(CampoBusca campo, String termo, long aposId, int maximo) {
+        List<Long> ids = new ArrayList<>();
+        for (Map.Entry<Long, String[]> documento : estrutura.documentos.tailMap(aposId, false).entrySet()) {
+            String texto = documento.getValue()[campo.ordinal()];
+            if (texto != null && texto.contains(termo)) {
+                ids.add(documento.getKey());
+                if (ids.size() >= maximo) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    private List<Long> intersectar(CampoBusca campo, String termo, long aposId, int maximo) {
+        Map<Long, ListaPostagens> postagens = estrutura.postagens.get(campo);
+        List<ListaPostagens> listas = new ArrayList<>();
+        for (long trigrama : trigramas(termo)) {
+            ListaPostagens lista = postagens.get(trigrama);
+            if (lista == null) {
+                return List.of();
+            }
+            listas.add(lista);
+        }
+        listas.sort(Comparator.comparingInt(ListaPostagens::tamanho));
+
+        List<Long> ids = new ArrayList<>();
+        ListaPostagens menor = listas.get(0);
+        candidatos:
+        for (int i = menor.primeiraPosicaoApos(aposId); i < menor.tamanho(); i++) {
+            long id = menor.get(i);
+            for (int j = 1; j < listas.size(); j++) {
+                if (!listas.get(j).contem(id)) {
+                    continue candidatos;
+                }
+            }
+            // Confirma o candidato: a lista pode conter IDs obsoletos e a interseção
+            // de trigramas não garante que eles apareçam em sequência no texto
+            String[] documento = estrutura.documentos.get(id);
+            String texto = documento != null ? documento[campo.ordinal()] : null;
+            if (texto != null && texto.contains(termo)) {
+                ids.add(id);
+                if (ids.size() >= maximo) {
+                    break;
+                }
+            }
+        }
+        return ids;
+    }
+
+    // Trigramas distintos do texto, cada um empacotado em um long (3 caracteres de 16 bits)
+    private static Set<Long> trigramas(String texto) {
+        Set<Long> trigramas = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= texto.length(); i++) {
+            trigramas.add(((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2));
+        }
+        return trigramas;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        reconstrucao.shutdownNow();
+    }
+
+    // Conteúdo do índice; trocado por inteiro ao final de cada reconstrução
+    private static class Estrutura {
+
+        private final Map<CampoBusca, Map<Long, ListaPostagens>> postagens = new EnumMap<>(CampoBusca.class);
+        private final NavigableMap<Long, String[]> documentos = new TreeMap<>();
+        private long totalPostagens;
+        private long postagensObsoletas;
+
+        private Estrutura() {
+            for (CampoBusca campo : CampoBusca.values()) {
+                postagens.put(campo, new HashMap<>());
+            }
+        }
+
+        private void aplicar(PersonagemAlteradoEvent evento) {
+            if (evento.getTipo() == PersonagemAlteradoEvent.Tipo.REMOVIDO) {
+                remover(evento.getId());
+            } else {
+                indexar(evento.getAtual());
+            }
+        }
+
+        private void indexar(Personagem personagem) {
+            CampoBusca[] campos = CampoBusca.values();
+            String[] textos = new String[campos.length];
+            String[] anteriores = documentos.get(personagem.getId());
+            for (CampoBusca campo : campos) {
+                String texto = NormalizadorTexto.normalizar(campo.valor(personagem));
+                textos[campo.ordinal()] = texto;
+                String anterior = anteriores != null ? anteriores[campo.ordinal()] : null;
+                if (texto != null && texto.equals(anterior)) {
+                    continue;
+                }
+                Set<Long> novos = texto != null ? trigramas(texto) : Set.of();
+                if (anterior != null) {
+                    Set<Long> removidos = trigramas(anterior);
+                    removidos.removeAll(novos);
+                    postagensObsoletas += removidos.size();
+                }
+                Map<Long, ListaPostagens> mapa = postagens.get(campo);
+                for (long trigrama : novos) {
+                    if (mapa.computeIfAbsent(trigrama, chave -> new ListaPostagens()).adicionar(personagem.getId())) {
+                        totalPostagens++;
+                    }
+                }
+            }
+            documentos.put(personagem.getId(), textos);
+        }
+
+        private void remover(Long id) {
+            String[] textos = documentos.remove(id);
+            if (textos == null) {
+                return;
+            }
+            for (String texto : textos) {
+                if (texto != null) {
+                    postagensObsoletas += trigramas(texto).size();
+                }
+            }
+        }
+
+        private boolean precisaCompactar() {
+            return postagensObsoletas > MINIMO_OBSOLETAS_PARA_COMPACTAR && postagensObsoletas * 4 > totalPostagens;
+        }
+    }
+}
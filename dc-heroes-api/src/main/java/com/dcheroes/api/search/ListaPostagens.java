@@ -0,0 +1,57 @@
+package com.dcheroes.api.search;
+
+import java.util.Arrays;
+
+/**
+ * Lista de IDs de documentos de um trigrama, mantida ordenada e sem repetições
+ * em um array de long primitivo. Como os IDs novos são crescentes, a inserção
+ * comum é um simples append; inserções fora de ordem usam busca binária.
+ */
+final class ListaPostagens {
+
+    private long[] ids = new long[4];
+    private int tamanho;
+
+    // Adiciona o ID, retornando false se ele já estava presente
+    boolean adicionar(long id) {
+        if (tamanho == 0 || id > ids[tamanho - 1]) {
+            garantirCapacidade();
+            ids[tamanho++] = id;
+            return true;
+        }
+        int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+        if (posicao >= 0) {
+            return false;
+        }
+        posicao = -posicao - 1;
+        garantirCapacidade();
+        System.arraycopy(ids, posicao, ids, posicao + 1, tamanho - posicao);
+        ids[posicao] = id;
+        tamanho++;
+        return true;
+    }
+
+    boolean contem(long id) {
+        return Arrays.binarySearch(ids, 0, tamanho, id) >= 0;
+    }
+
+    // Posição do primeiro ID estritamente maior que o informado
+    int primeiraPosicaoApos(long id) {
+        int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+        return posicao >= 0 ? posicao + 1 : -posicao - 1;
+    }
+
+    long get(int posicao) {
+        return ids[posicao];
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    private void garantirCapacidade() {
+        if (tamanho == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+        }
+    }
+}
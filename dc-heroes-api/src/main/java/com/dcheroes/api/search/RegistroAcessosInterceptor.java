@@ -0,0 +1,40 @@
+package com.dcheroes.api.search;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Conta as leituras de personagem por ID (GET /api/personagens/{id}) como popularidade para
+ * as sugestões. Registrado antes do interceptor do cache de respostas, para contar também
+ * as leituras respondidas com 304 ou com a resposta em cache.
+ */
+@Component
+public class RegistroAcessosInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private IndiceSugestoes indiceSugestoes;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> variaveis = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String id = variaveis != null ? variaveis.get("id") : null;
+        if (id != null) {
+            try {
+                indiceSugestoes.registrarAcesso(Long.valueOf(id));
+            } catch (NumberFormatException e) {
+                // ID inválido: a própria requisição responde 400
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,253 @@
+package com.dcheroes.api.service;
+
+import com.dcheroes.api.cache.VersaoPersonagens;
+import com.dcheroes.api.config.DataInitializer;
+import com.dcheroes.api.event.PersonagemAlteradoEvent;
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.model.StatusPersonagem;
+import com.dcheroes.api.model.dto.ResultadoFacetas;
+import com.dcheroes.api.model.enums.DimensaoFaceta;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Contagens agregadas (facetas) de personagens por afiliação, status, alinhamento e universo.
+ *
+ * Sem filtros, as contagens vêm de contadores em memória carregados ao fim da carga inicial
+ * de dados e mantidos pelos eventos de alteração. Com filtros, são calculadas no banco
+ * com GROUP BY sobre os mesmos critérios do endpoint /filtrar.
+ */
+@Service
+public class FacetasService {
+
+    private static final Logger log = LoggerFactory.getLogger(FacetasService.class);
+
+    // Chave usada para personagens sem valor na dimensão
+    static final String SEM_VALOR = "(não informado)";
+
+    private static final int BLOCO_LEITURA = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    private final TransactionTemplate transacaoLeitura;
+
+    private final Object trava = new Object();
+    // Uma carga por vez: cada uma tem a sua lista de alterações pendentes
+    private final Object travaCarga = new Object();
+    private Map<DimensaoFaceta, Map<String, Long>> contadores = new EnumMap<>(DimensaoFaceta.class);
+    private long total;
+    private boolean pronto;
+    private List<PersonagemAlteradoEvent> pendentes;
+
+    public FacetasService(PlatformTransactionManager transactionManager) {
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+    }
+
+    // Conta os personagens nas dimensões pedidas, opcionalmente restritos pelos critérios de filtro
+    public ResultadoFacetas contar(Collection<DimensaoFaceta> dimensoes, String nome, String afiliacao,
+                                   StatusPersonagem status) {
+        FiltroPersonagens filtro = new FiltroPersonagens(nome, afiliacao, status);
+        if (filtro.isVazio()) {
+            synchronized (trava) {
+                if (pronto) {
+                    Map<String, Map<String, Long>> facetas = new LinkedHashMap<>();
+                    for (DimensaoFaceta dimensao : dimensoes) {
+                        facetas.put(dimensao.getAtributo(), ordenar(contadores.get(dimensao)));
+                    }
+                    return new ResultadoFacetas(total, facetas);
+                }
+            }
+        }
+
+        Map<String, Map<String, Long>> facetas = new LinkedHashMap<>();
+        long totalFiltrado = 0;
+        for (DimensaoFaceta dimensao : dimensoes) {
+            Map<String, Long> contagem = agruparNoBanco(dimensao, filtro);
+            totalFiltrado = contagem.values().stream().mapToLong(Long::longValue).sum();
+            facetas.put(dimensao.getAtributo(), ordenar(contagem));
+        }
+        if (dimensoes.isEmpty()) {
+            totalFiltrado = agruparNoBanco(DimensaoFaceta.STATUS, filtro).values().stream()
+                    .mapToLong(Long::longValue).sum();
+        }
+        return new ResultadoFacetas(totalFiltrado, facetas);
+    }
+
+    @Order(VersaoPersonagens.ORDEM_ANTES_DA_VERSAO)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarPersonagem(PersonagemAlteradoEvent evento) {
+        synchronized (trava) {
+            if (pendentes != null) {
+                pendentes.add(evento);
+            }
+            if (pronto) {
+                aplicar(evento);
+            }
+        }
+    }
+
+    // A carga inicial de dados não publica eventos por personagem: a primeira carga dos contadores
+    // espera o fim dela (com sucesso ou não)
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciarAplicacao() {
+        dataInitializer.getConclusao().whenComplete((criados, erro) -> {
+            try {
+                carregarContadores();
+            } catch (RuntimeException e) {
+                log.error("Falha ao carregar os contadores de facetas", e);
+            }
+        });
+    }
+
+    // Carrega os contadores em uma única consulta, que lê id, versão e as dimensões de cada
+    // personagem de um mesmo retrato da tabela. Alterações publicadas durante a leitura são
+    // guardadas e, ao final, conciliadas com a versão de cada personagem no retrato
+    public void carregarContadores() {
+        synchronized (travaCarga) {
+            synchronized (trava) {
+                pendentes = new ArrayList<>();
+            }
+            Map<DimensaoFaceta, Map<String, Long>> novos = new EnumMap<>(DimensaoFaceta.class);
+            Map<Long, Long> versoes = new HashMap<>();
+            try {
+                transacaoLeitura.executeWithoutResult(status -> lerContadores(novos, versoes));
+            } catch (RuntimeException e) {
+                synchronized (trava) {
+                    pendentes = null;
+                }
+                throw e;
+            }
+
+            synchronized (trava) {
+                Map<Long, List<PersonagemAlteradoEvent>> porId = new LinkedHashMap<>();
+                for (PersonagemAlteradoEvent evento : pendentes) {
+                    porId.computeIfAbsent(evento.getId(), id -> new ArrayList<>()).add(evento);
+                }
+                pendentes = null;
+                contadores = novos;
+                total = versoes.size();
+                porId.forEach((id, eventos) -> conciliar(versoes.get(id), eventos));
+                pronto = true;
+                log.info("Contadores de facetas carregados: {} personagens", total);
+            }
+        }
+    }
+
+    private void lerContadores(Map<DimensaoFaceta, Map<String, Long>> novos, Map<Long, Long> versoes) {
+        DimensaoFaceta[] dimensoes = DimensaoFaceta.values();
+        StringBuilder atributos = new StringBuilder("p.id, p.versao");
+        for (DimensaoFaceta dimensao : dimensoes) {
+            atributos.append(", p.").append(dimensao.getAtributo());
+            novos.put(dimensao, new HashMap<>());
+        }
+        TypedQuery<Object[]> consulta = entityManager.createQuery(
+                "SELECT " + atributos + " FROM Personagem p", Object[].class);
+        consulta.setHint(HibernateHints.HINT_FETCH_SIZE, BLOCO_LEITURA);
+        try (Stream<Object[]> linhas = consulta.getResultStream()) {
+            linhas.forEach(linha -> {
+                versoes.put((Long) linha[0], (Long) linha[1]);
+                for (int i = 0; i < dimensoes.length; i++) {
+                    novos.get(dimensoes[i]).merge(chave(linha[i + 2]), 1L, Long::sum);
+                }
+            });
+        }
+    }
+
+    // Aplica as alterações de um personagem que o retrato ainda não incluía. Presente no retrato,
+    // faltam as atualizações de versão maior que a lida e a remoção. Ausente, ou foi criado depois
+    // da leitura (faltam todas) ou, havendo remoção entre elas, já não existia (não falta nenhuma)
+    private void conciliar(Long versaoLida, List<PersonagemAlteradoEvent> eventos) {
+        boolean removido = eventos.stream()
+                .anyMatch(evento -> evento.getTipo() == PersonagemAlteradoEvent.Tipo.REMOVIDO);
+        if (versaoLida == null && removido) {
+            return;
+        }
+        for (PersonagemAlteradoEvent evento : eventos) {
+            Personagem atual = evento.getAtual();
+            if (versaoLida == null || atual == null || atual.getVersao() == null
+                    || atual.getVersao() > versaoLida) {
+                aplicar(evento);
+            }
+        }
+    }
+
+    private void aplicar(PersonagemAlteradoEvent evento) {
+        if (evento.getAnterior() != null) {
+            contabilizar(evento.getAnterior(), -1);
+        }
+        if (evento.getAtual() != null) {
+            contabilizar(evento.getAtual(), 1);
+        }
+    }
+
+    private Map<String, Long> agruparNoBanco(DimensaoFaceta dimensao, FiltroPersonagens filtro) {
+        // O atributo vem do enum, nunca da requisição
+        String atributo = "p." + dimensao.getAtributo();
+        TypedQuery<Object[]> consulta = entityManager.createQuery(
+                "SELECT " + atributo + ", COUNT(p) FROM Personagem p WHERE 1 = 1" + filtro.condicoes() +
+                " GROUP BY " + atributo, Object[].class);
+        filtro.aplicarParametros(consulta);
+
+        Map<String, Long> contagem = new HashMap<>();
+        List<Object[]> linhas = consulta.getResultList();
+        for (Object[] linha : linhas) {
+            contagem.merge(chave(linha[0]), (Long) linha[1], Long::sum);
+        }
+        return contagem;
+    }
+
+    private void contabilizar(Personagem personagem, long delta) {
+        total += delta;
+        for (DimensaoFaceta dimensao : DimensaoFaceta.values()) {
+            Map<String, Long> contagem = contadores.computeIfAbsent(dimensao, d -> new HashMap<>());
+            Long novo = contagem.merge(chave(dimensao.valor(personagem)), delta, Long::sum);
+            if (novo != null && novo <= 0) {
+                contagem.remove(chave(dimensao.valor(personagem)));
+            }
+        }
+    }
+
+    private static String chave(Object valor) {
+        if (valor == null) {
+            return SEM_VALOR;
+        }
+        return valor instanceof Enum<?> constante ? constante.name() : valor.toString();
+    }
+
+    // Cópia ordenada da maior para a menor contagem
+    private static Map<String, Long> ordenar(Map<String, Long> contagem) {
+        Map<String, Long> ordenada = new LinkedHashMap<>();
+        if (contagem != null) {
+            contagem.entrySet().stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .forEach(entrada -> ordenada.put(entrada.getKey(), entrada.getValue()));
+        }
+        return ordenada;
+    }
+}
@@ -0,0 +1,99 @@
+package com.dcheroes.api.service;
+
+import com.dcheroes.api.model.StatusPersonagem;
+import jakarta.persistence.Query;
+
+/**
+ * Critérios opcionais de filtro de personagens (nome, afiliação, status, nome real e origem).
+ * Gera condições JPQL apenas para os critérios informados, em vez do padrão
+ * "(:param IS NULL OR coluna = :param)", que impede o banco de usar os índices.
+ */
+public class FiltroPersonagens {
+
+    private final String nome;
+    private final String afiliacao;
+    private final StatusPersonagem status;
+    private final String nomeReal;
+    private final String origem;
+
+    public FiltroPersonagens(String nome, String afiliacao, StatusPersonagem status) {
+        this(nome, afiliacao, status, null, null);
+    }
+
+    public FiltroPersonagens(String nome, String afiliacao, StatusPersonagem status, String nomeReal, String origem) {
+        this.nome = nome;
+        this.afiliacao = afiliacao;
+        this.status = status;
+        this.nomeReal = nomeReal;
+        this.origem = origem;
+    }
+
+    public static FiltroPersonagens porNomeReal(String nomeReal) {
+        return new FiltroPersonagens(null, null, null, nomeReal, null);
+    }
+
+    public static FiltroPersonagens porOrigem(String origem) {
+        return new FiltroPersonagens(null, null, null, null, origem);
+    }
+
+    public boolean isVazio() {
+        return nome == null && afiliacao == null && status == null && nomeReal == null && origem == null;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getNomeReal() {
+        return nomeReal;
+    }
+
+    public String getOrigem() {
+        return origem;
+    }
+
+    // Indica se há exatamente um critério e ele é uma busca por substring (nome, nome real ou origem)
+    public boolean isApenasTexto() {
+        int textos = (nome != null ? 1 : 0) + (nomeReal != null ? 1 : 0) + (origem != null ? 1 : 0);
+        return textos == 1 && afiliacao == null && status == null;
+    }
+
+    // Condições sobre o alias "p", cada uma iniciada por " AND "
+    public String condicoes() {
+        StringBuilder condicoes = new StringBuilder();
+        if (afiliacao != null) {
+            condicoes.append(" AND p.afiliacao = :afiliacao");
+        }
+        if (status != null) {
+            condicoes.append(" AND p.status = :status");
+        }
+        if (nome != null) {
+            condicoes.append(" AND LOWER(p.nome) LIKE LOWER(CONCAT('%', :nome, '%'))");
+        }
+        if (nomeReal != null) {
+            condicoes.append(" AND LOWER(p.nomeReal) LIKE LOWER(CONCAT('%', :nomeReal, '%'))");
+        }
+        if (origem != null) {
+            condicoes.append(" AND LOWER(p.origem) LIKE LOWER(CONCAT('%', :origem, '%'))");
+        }
+        return condicoes.toString();
+    }
+
+    public void aplicarParametros(Query consulta) {
+        if (afiliacao != null) {
+            consulta.setParameter("afiliacao", afiliacao);
+        }
+        if (status != null) {
+            consulta.setParameter("status", status);
+        }
+        if (nome != null) {
+            consulta.setParameter("nome", nome);
+        }
+        if (nomeReal != null) {
+            consulta.setParameter("nomeReal", nomeReal);
+        }
+        if (origem != null) {
+            consulta.setParameter("origem", origem);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.dcheroes.api.service;
+
+import com.dcheroes.api.event.PersonagemAlteradoEvent;
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.model.dto.ResultadoItemLote;
+import com.dcheroes.api.model.dto.ResultadoItemLote.Situacao;
+import com.dcheroes.api.model.dto.ResultadoLote;
+import com.dcheroes.api.repository.PersonagemRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Operações em lote sobre personagens (criação, atualização e remoção).
+ * Os itens são consumidos em blocos: cada bloco é validado, gravado com lotes JDBC
+ * e confirmado em sua própria transação. Se a gravação de um bloco falhar, seus itens
+ * são reprocessados individualmente para que o relatório aponte exatamente quais falharam.
+ */
+@Service
+public class PersonagemLoteService {
+
+    @Autowired
+    private PersonagemRepository personagemRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PoderService poderService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.lote.tamanho-bloco:500}")
+    private int tamanhoBloco;
+
+    // Cria os personagens recebidos, ignorando IDs informados
+    public ResultadoLote criar(Iterator<Personagem> personagens) {
+        return processar(personagens, false, bloco -> gravarCriacoes(bloco, true));
+    }
+
+    // Cria os personagens sem publicar um evento de alteração por personagem. Para cargas em
+    // massa: quem chama é responsável por atualizar caches e índices depois (ver DataInitializer)
+    public ResultadoLote criarSemEventos(Iterator<Personagem> personagens) {
+        return processar(personagens, false, bloco -> gravarCriacoes(bloco, false));
+    }
+
+    // Atualiza os personagens recebidos; cada item deve informar o ID
+    public ResultadoLote atualizar(Iterator<Personagem> personagens) {
+        return processar(personagens, true, this::gravarAtualizacoes);
+    }
+
+    // Remove os personagens com os IDs informados
+    public ResultadoLote deletar(List<Long> ids) {
+        ResultadoLote resultado = new ResultadoLote();
+        for (int inicio = 0; inicio < ids.size(); inicio += tamanhoBloco) {
+            List<Long> bloco = ids.subList(inicio, Math.min(inicio + tamanhoBloco, ids.size()));
+            int deslocamento = inicio;
+            resultado.adicionarTodos(transactionTemplate.execute(status -> removerBloco(bloco, deslocamento)));
+        }
+        return resultado;
+    }
+
+    // Consome a origem em blocos, validando e gravando cada bloco separadamente
+    private ResultadoLote processar(Iterator<Personagem> origem, boolean exigeId,
+                                    Function<List<ItemLote>, List<ResultadoItemLote>> gravacao) {
+        ResultadoLote resultado = new ResultadoLote();
+        List<ItemLote> bloco = new ArrayList<>(tamanhoBloco);
+        int indice = 0;
+        while (true) {
+            Personagem personagem;
+            try {
+                if (!origem.hasNext()) {
+                    break;
+                }
+                personagem = origem.next();
+            } catch (RuntimeException e) {
+                // Conteúdo ilegível: não é possível continuar lendo a partir deste ponto
+                resultado.adicionar(new ResultadoItemLote(indice, null, Situacao.INVALIDO,
+                        "Conteúdo inválido: " + e.getMessage()));
+                resultado.interromper();
+                break;
+            }
+            ResultadoItemLote invalido = validar(indice, personagem, exigeId);
+            if (invalido != null) {
+                resultado.adicionar(invalido);
+            } else {
+                bloco.add(new ItemLote(indice, personagem));
+            }
+            indice++;
+            if (bloco.size() == tamanhoBloco) {
+                resultado.adicionarTodos(gravarBloco(bloco, gravacao));
+                bloco.clear();
+            }
+        }
+        if (!bloco.isEmpty()) {
+            resultado.adicionarTodos(gravarBloco(bloco, gravacao));
+        }
+        return resultado;
+    }
+
+    // Grava o bloco inteiro em uma transação; em caso de falha, isola os itens problemáticos.
+    // Os poderes novos do bloco são cadastrados antes, fora da transação do bloco
+    private List<ResultadoItemLote> gravarBloco(List<ItemLote> bloco,
+                                                Function<List<ItemLote>, List<ResultadoItemLote>> gravacao) {
+        try {
+            poderService.cadastrar(bloco.stream().map(item -> item.personagem).toList());
+            return transactionTemplate.execute(status -> gravacao.apply(bloco));
+        } catch (RuntimeException e) {
+            List<ResultadoItemLote> resultados = new ArrayList<>(bloco.size());
+            for (ItemLote item : bloco) {
+                try {
+                    resultados.addAll(transactionTemplate.execute(status -> gravacao.apply(List.of(item))));
+                } catch (RuntimeException erroItem) {
+                    resultados.add(new ResultadoItemLote(item.indice, item.personagem.getId(), Situacao.ERRO,
+                            "Erro ao gravar personagem"));
+                }
+            }
+            return resultados;
+        }
+    }
+
+    private List<ResultadoItemLote> gravarCriacoes(List<ItemLote> bloco, boolean publicarEventos) {
+        List<Personagem> novos = new ArrayList<>(bloco.size());
+        for (ItemLote item : bloco) {
+            // Sem ID e sem versão o registro é novo para o Hibernate (persist, não merge), inclusive
+            // na regravação item a item depois de um bloco desfeito, que já tinha recebido ambos
+            item.personagem.setId(null);
+            item.personagem.setVersao(null);
+            novos.add(item.personagem);
+        }
+        List<Personagem> salvos = personagemRepository.saveAll(novos);
+        poderService.vincular(salvos, false);
+        descarregar();
+
+        List<ResultadoItemLote> resultados = new ArrayList<>(bloco.size());
+        for (int i = 0; i < bloco.size(); i++) {
+            Personagem salvo = salvos.get(i);
+            if (publicarEventos) {
+                eventPublisher.publishEvent(PersonagemAlteradoEvent.criado(salvo));
+            }
+            resultados.add(new ResultadoItemLote(bloco.get(i).indice, salvo.getId(), Situacao.CRIADO, null));
+        }
+        return resultados;
+    }
+
+    private List<ResultadoItemLote> gravarAtualizacoes(List<ItemLote> bloco) {
+        Set<Long> ids = bloco.stream().map(item -> item.personagem.getId()).collect(Collectors.toSet());
+        Map<Long, Personagem> existentes = personagemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Personagem::getId, Function.identity()));
+
+        List<ResultadoItemLote> resultados = new ArrayList<>(bloco.size());
+        List<Personagem> anteriores = new ArrayList<>();
+        List<Personagem> atuais = new ArrayList<>();
+        for (ItemLote item : bloco) {
+            Long id = item.personagem.getId();
+            Personagem existente = existentes.get(id);
+            if (existente == null) {
+                resultados.add(new ResultadoItemLote(item.indice, id, Situacao.NAO_ENCONTRADO,
+                        "Personagem não encontrado com ID: " + id));
+            } else {
+                anteriores.add(new Personagem(existente));
+                existente.atualizarCom(item.personagem);
+                atuais.add(existente);
+                resultados.add(new ResultadoItemLote(item.indice, id, Situacao.ATUALIZADO, null));
+            }
+        }
+        // Os eventos só são publicados após o flush, que incrementa a versão de cada registro
+        entityManager.flush();
+        List<Personagem> poderesAlterados = new ArrayList<>();
+        for (int i = 0; i < atuais.size(); i++) {
+            if (!Objects.equals(anteriores.get(i).getPoderes(), atuais.get(i).getPoderes())) {
+                poderesAlterados.add(atuais.get(i));
+            }
+        }
+        poderService.vincular(poderesAlterados, true);
+        for (int i = 0; i < atuais.size(); i++) {
+            eventPublisher.publishEvent(PersonagemAlteradoEvent.atualizado(anteriores.get(i), atuais.get(i)));
+        }
+        descarregar();
+        return resultados;
+    }
+
+    private List<ResultadoItemLote> removerBloco(List<Long> ids, int deslocamento) {
+        // Carrega os existentes para publicar o estado anterior de cada removido
+        Map<Long, Personagem> existentes = personagemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Personagem::getId, Personagem::new));
+        if (!existentes.isEmpty()) {
+            personagemRepository.deleteAllByIdInBatch(existentes.keySet());
+            entityManager.clear();
+            existentes.values().forEach(anterior -> eventPublisher.publishEvent(PersonagemAlteradoEvent.removido(anterior)));
+        }
+
+        List<ResultadoItemLote> resultados = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            if (existentes.containsKey(id)) {
+                resultados.add(new ResultadoItemLote(deslocamento + i, id, Situacao.REMOVIDO, null));
+            } else {
+                resultados.add(new ResultadoItemLote(deslocamento + i, id, Situacao.NAO_ENCONTRADO,
+                        "Personagem não encontrado com ID: " + id));
+            }
+        }
+        return resultados;
+    }
+
+    // Valida o item com as mesmas regras do endpoint individual
+    private ResultadoItemLote validar(int indice, Personagem personagem, boolean exigeId) {
+        if (personagem == null) {
+            return new ResultadoItemLote(indice, null, Situacao.INVALIDO, "Item vazio");
+        }
+        if (exigeId && personagem.getId() == null) {
+            return new ResultadoItemLote(indice, null, Situacao.INVALIDO, "ID é obrigatório para atualização");
+        }
+        Set<ConstraintViolation<Personagem>> violacoes = validator.validate(personagem);
+        if (violacoes.isEmpty()) {
+            return null;
+        }
+        String mensagem = violacoes.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+        return new ResultadoItemLote(indice, personagem.getId(), Situacao.INVALIDO, mensagem);
+    }
+
+    // Envia os lotes pendentes ao banco e libera as entidades do contexto de persistência
+    private void descarregar() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static class ItemLote {
+        private final int indice;
+        private final Personagem personagem;
+
+        private ItemLote(int indice, Personagem personagem) {
+            this.indice = indice;
+            this.personagem = personagem;
+        }
+    }
+}
@@ -1,20 +1,124 @@
 package com.dcheroes.api.service;
 
+import com.dcheroes.api.cache.CachePersonagens;
+import com.dcheroes.api.event.FluxoAlteracoes;
+import com.dcheroes.api.event.PersonagemAlteradoEvent;
+import com.dcheroes.api.exception.ConflitoVersaoException;
+import com.dcheroes.api.exception.PersonagemNaoEncontradoException;
 import com.dcheroes.api.model.Personagem;
 import com.dcheroes.api.model.StatusPersonagem;
+import com.dcheroes.api.model.dto.ItemPesquisa;
+import com.dcheroes.api.model.dto.PaginaCursor;
+import com.dcheroes.api.model.dto.Sugestao;
+import com.dcheroes.api.model.enums.CampoPersonagem;
 import com.dcheroes.api.repository.PersonagemRepository;
+import com.dcheroes.api.search.CampoBusca;
+import com.dcheroes.api.search.IndicePesquisa;
+import com.dcheroes.api.search.IndiceSugestoes;
+import com.dcheroes.api.search.IndiceTrigramas;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PersonagemService {
     
+    // Quantidade de linhas exportadas entre limpezas do contexto de persistência
+    private static final int BLOCO_EXPORTACAO = 500;
+    
+    // Quantidade máxima de IDs por consulta ao carregar resultados vindos do índice
+    private static final int BLOCO_CARGA_IDS = 1000;
+    
+    // Tentativas de um PATCH sem If-Match quando o registro muda entre a leitura e o UPDATE
+    private static final int TENTATIVAS_PATCH = 3;
+    
+    // Colunas que um PATCH pode alterar, pelo nome do atributo na entidade (igual ao do JSON)
+    private static final Map<String, Function<Personagem, Object>> CAMPOS_EDITAVEIS = new LinkedHashMap<>();
+    
+    static {
+        CAMPOS_EDITAVEIS.put("nome", Personagem::getNome);
+        CAMPOS_EDITAVEIS.put("nomeReal", Personagem::getNomeReal);
+        CAMPOS_EDITAVEIS.put("origem", Personagem::getOrigem);
+        CAMPOS_EDITAVEIS.put("universo", Personagem::getUniverso);
+        CAMPOS_EDITAVEIS.put("poderes", Personagem::getPoderes);
+        CAMPOS_EDITAVEIS.put("afiliacao", Personagem::getAfiliacao);
+        CAMPOS_EDITAVEIS.put("primeiraAparicao", Personagem::getPrimeiraAparicao);
+        CAMPOS_EDITAVEIS.put("status", Personagem::getStatus);
+        CAMPOS_EDITAVEIS.put("descricao", Personagem::getDescricao);
+        CAMPOS_EDITAVEIS.put("imagemUrl", Personagem::getImagemUrl);
+        CAMPOS_EDITAVEIS.put("alinhamento", Personagem::getAlinhamento);
+    }
+    
     @Autowired
     private PersonagemRepository personagemRepository;
     
+    @Autowired
+    private IndiceTrigramas indiceTrigramas;
+    
+    @Autowired
+    private IndicePesquisa indicePesquisa;
+    
+    @Autowired
+    private IndiceSugestoes indiceSugestoes;
+    
+    @Autowired
+    private FluxoAlteracoes fluxoAlteracoes;
+    
+    @Autowired
+    private CachePersonagens cachePersonagens;
+    
+    @Autowired
+    private PoderService poderService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private Validator validator;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${app.paginacao.limite-padrao:20}")
+    private int limitePadrao;
+    
+    @Value("${app.paginacao.limite-maximo:100}")
+    private int limiteMaximo;
+    
     // Listar todos os personagens
     public List<Personagem> listarTodos() {
         return personagemRepository.findAll();
@@ -22,44 +126,107 @@ public class PersonagemService {
     
     // Buscar personagem por ID
     public Optional<Personagem> buscarPorId(Long id) {
-        return personagemRepository.findById(id);
+        return cachePersonagens.buscarPorId(id, personagemRepository::findById);
     }
     
     // Criar novo personagem
+    @Transactional
     public Personagem criar(Personagem personagem) {
-        return personagemRepository.save(personagem);
+        Personagem salvo = personagemRepository.save(personagem);
+        poderService.vincular(List.of(salvo), false);
+        eventPublisher.publishEvent(PersonagemAlteradoEvent.criado(salvo));
+        return salvo;
     }
     
     // Atualizar personagem
+    @Transactional
     public Personagem atualizar(Long id, Personagem personagemAtualizado) {
+        return atualizar(id, personagemAtualizado, null);
+    }
+    
+    // Atualizar personagem, exigindo que a versão atual seja a informada (quando não for nula)
+    @Transactional
+    public Personagem atualizar(Long id, Personagem personagemAtualizado, Long versaoEsperada) {
         return personagemRepository.findById(id)
                 .map(personagem -> {
-                    personagem.setNome(personagemAtualizado.getNome());
-                    personagem.setNomeReal(personagemAtualizado.getNomeReal());
-                    personagem.setOrigem(personagemAtualizado.getOrigem());
-                    personagem.setPoderes(personagemAtualizado.getPoderes());
-                    personagem.setAfiliacao(personagemAtualizado.getAfiliacao());
-                    personagem.setPrimeiraAparicao(personagemAtualizado.getPrimeiraAparicao());
-                    personagem.setStatus(personagemAtualizado.getStatus());
-                    personagem.setDescricao(personagemAtualizado.getDescricao());
-                    personagem.setAlinhamento(personagemAtualizado.getAlinhamento());
-                    personagem.setImagemUrl(personagemAtualizado.getImagemUrl());
-                    return personagemRepository.save(personagem);
+                    if (versaoEsperada != null && !versaoEsperada.equals(personagem.getVersao())) {
+                        throw new ConflitoVersaoException(id, personagem.getVersao());
+                    }
+                    Personagem anterior = new Personagem(personagem);
+                    personagem.atualizarCom(personagemAtualizado);
+                    // O flush incrementa a versão antes de o evento copiar o estado atual
+                    Personagem salvo = personagemRepository.saveAndFlush(personagem);
+                    if (!Objects.equals(anterior.getPoderes(), salvo.getPoderes())) {
+                        poderService.vincular(List.of(salvo), true);
+                    }
+                    eventPublisher.publishEvent(PersonagemAlteradoEvent.atualizado(anterior, salvo));
+                    return salvo;
                 })
-                .orElseThrow(() -> new RuntimeException("Personagem não encontrado com ID: " + id));
+                .orElseThrow(() -> new PersonagemNaoEncontradoException(id));
+    }
+    
+    // Atualização parcial com JSON Merge Patch (RFC 7386): campos ausentes ficam como estão e
+    // null limpa o campo. Gera um único UPDATE só com as colunas alteradas, condicionado à versão
+    // lida ("versao = :versao"); o estado anterior vem do cache, e essa condição garante que ele
+    // ainda é o do banco. Com versão esperada (If-Match) divergente, lança ConflitoVersaoException
+    @Transactional
+    public Personagem aplicarPatch(Long id, JsonNode patch, Long versaoEsperada) {
+        if (!(patch instanceof ObjectNode)) {
+            throw new IllegalArgumentException("O patch deve ser um objeto JSON");
+        }
+        ObjectNode alteracoes = ((ObjectNode) patch).deepCopy();
+        alteracoes.remove(List.of("id", "versao"));
+        
+        Long versaoAtual = null;
+        for (int tentativa = 0; tentativa < TENTATIVAS_PATCH; tentativa++) {
+            // Na primeira tentativa o cache evita a leitura; nas seguintes, lê de novo do banco
+            Optional<Personagem> encontrado = tentativa == 0
+                    ? buscarPorId(id)
+                    : personagemRepository.findById(id);
+            Personagem anterior = encontrado.map(Personagem::new)
+                    .orElseThrow(() -> new PersonagemNaoEncontradoException(id));
+            versaoAtual = anterior.getVersao();
+            if (versaoEsperada != null && !versaoEsperada.equals(versaoAtual)) {
+                if (tentativa == 0) {
+                    continue;
+                }
+                throw new ConflitoVersaoException(id, versaoAtual);
+            }
+            
+            Personagem atual = mesclar(anterior, alteracoes);
+            Map<String, Object> alterados = camposAlterados(anterior, atual);
+            if (alterados.isEmpty()) {
+                return atual;
+            }
+            if (atualizarColunas(id, versaoAtual, alterados) == 1) {
+                atual.setVersao(versaoAtual + 1);
+                if (alterados.containsKey("poderes")) {
+                    poderService.vincular(List.of(atual), true);
+                }
+                eventPublisher.publishEvent(PersonagemAlteradoEvent.atualizado(anterior, atual));
+                return atual;
+            }
+            // Versão mudou (ou o registro foi removido) desde a leitura; a próxima leitura vai ao banco
+            entityManager.clear();
+        }
+        throw new ConflitoVersaoException(id, versaoAtual);
     }
     
     // Deletar personagem
+    @Transactional
     public void deletar(Long id) {
-        if (personagemRepository.existsById(id)) {
-            personagemRepository.deleteById(id);
-        } else {
-            throw new RuntimeException("Personagem não encontrado com ID: " + id);
-        }
+        Personagem personagem = personagemRepository.findById(id)
+                .orElseThrow(() -> new PersonagemNaoEncontradoException(id));
+        Personagem anterior = new Personagem(personagem);
+        personagemRepository.delete(personagem);
+        eventPublisher.publishEvent(PersonagemAlteradoEvent.removido(anterior));
     }
     
     // Buscar personagens por nome
     public List<Personagem> buscarPorNome(String nome) {
+        if (indiceTrigramas.isPronto()) {
+            return buscarNoIndice(CampoBusca.NOME, nome, 0L, 0);
+        }
         return personagemRepository.findByNomeContainingIgnoreCase(nome);
     }
     
@@ -75,22 +242,302 @@ public class PersonagemService {
     
     // Buscar personagens por nome real
     public List<Personagem> buscarPorNomeReal(String nomeReal) {
+        if (indiceTrigramas.isPronto()) {
+            return buscarNoIndice(CampoBusca.NOME_REAL, nomeReal, 0L, 0);
+        }
         return personagemRepository.findByNomeRealContainingIgnoreCase(nomeReal);
     }
     
     // Buscar personagens por origem
     public List<Personagem> buscarPorOrigem(String origem) {
+        if (indiceTrigramas.isPronto()) {
+            return buscarNoIndice(CampoBusca.ORIGEM, origem, 0L, 0);
+        }
         return personagemRepository.findByOrigemContainingIgnoreCase(origem);
     }
     
     // Buscar por múltiplos critérios
     public List<Personagem> buscarPorMultiplosCriterios(String nome, String afiliacao, StatusPersonagem status) {
-        return personagemRepository.findByMultiplosCriterios(nome, afiliacao, status);
+        if (usarIndiceNoFiltro(nome, afiliacao, status)) {
+            return buscarNoIndice(CampoBusca.NOME, nome, 0L, 0);
+        }
+        return consultarPorCriterios(new FiltroPersonagens(nome, afiliacao, status), 0L, 0);
     }
     
     // Verificar se personagem existe por nome
     public boolean existePorNome(String nome) {
-        return personagemRepository.existsByNomeIgnoreCase(nome);
+        return cachePersonagens.existePorNome(nome, personagemRepository::existePorNome);
+    }
+    
+    // Listar personagens paginados por cursor
+    public PaginaCursor<Personagem> listarPagina(String cursor, Integer limite) {
+        return paginar(cursor, limite, personagemRepository::findByIdGreaterThanOrderByIdAsc);
+    }
+    
+    // Buscar personagens por nome, paginados por cursor
+    public PaginaCursor<Personagem> buscarPorNomePagina(String nome, String cursor, Integer limite) {
+        return paginar(cursor, limite, (aposId, pagina) -> indiceTrigramas.isPronto()
+                ? buscarNoIndice(CampoBusca.NOME, nome, aposId, pagina.getPageSize())
+                : personagemRepository.findByNomeContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(nome, aposId, pagina));
+    }
+    
+    // Buscar personagens por afiliação, paginados por cursor
+    public PaginaCursor<Personagem> buscarPorAfiliacaoPagina(String afiliacao, String cursor, Integer limite) {
+        return paginar(cursor, limite, (aposId, pagina) ->
+                personagemRepository.findByAfiliacaoAndIdGreaterThanOrderByIdAsc(afiliacao, aposId, pagina));
+    }
+    
+    // Buscar personagens por status, paginados por cursor
+    public PaginaCursor<Personagem> buscarPorStatusPagina(StatusPersonagem status, String cursor, Integer limite) {
+        return paginar(cursor, limite, (aposId, pagina) ->
+                personagemRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, aposId, pagina));
+    }
+    
+    // Buscar personagens por nome real, paginados por cursor
+    public PaginaCursor<Personagem> buscarPorNomeRealPagina(String nomeReal, String cursor, Integer limite) {
+        return paginar(cursor, limite, (aposId, pagina) -> indiceTrigramas.isPronto()
+                ? buscarNoIndice(CampoBusca.NOME_REAL, nomeReal, aposId, pagina.getPageSize())
+                : personagemRepository.findByNomeRealContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(nomeReal, aposId, pagina));
+    }
+    
+    // Buscar personagens por origem, paginados por cursor
+    public PaginaCursor<Personagem> buscarPorOrigemPagina(String origem, String cursor, Integer limite) {
+        return paginar(cursor, limite, (aposId, pagina) -> indiceTrigramas.isPronto()
+                ? buscarNoIndice(CampoBusca.ORIGEM, origem, aposId, pagina.getPageSize())
+                : personagemRepository.findByOrigemContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(origem, aposId, pagina));
+    }
+    
+    // Buscar por múltiplos critérios, paginados por cursor
+    public PaginaCursor<Personagem> buscarPorMultiplosCriteriosPagina(String nome, String afiliacao, StatusPersonagem status,
+                                                                     String cursor, Integer limite) {
+        return paginar(cursor, limite, (aposId, pagina) -> usarIndiceNoFiltro(nome, afiliacao, status)
+                ? buscarNoIndice(CampoBusca.NOME, nome, aposId, pagina.getPageSize())
+                : consultarPorCriterios(new FiltroPersonagens(nome, afiliacao, status), aposId, pagina.getPageSize()));
+    }
+    
+    // Buscar personagens que têm todos os poderes informados (ou ao menos um, com "todos" falso),
+    // pelos vínculos indexados
+    public List<Personagem> buscarPorPoderes(List<String> poderes, boolean todos) {
+        return carregarEmOrdem(poderService.buscarIds(poderes, todos, 0L, 0));
+    }
+    
+    // Buscar personagens por poderes, paginados por cursor
+    public PaginaCursor<Personagem> buscarPorPoderesPagina(List<String> poderes, boolean todos, String cursor, Integer limite) {
+        return paginar(cursor, limite, (aposId, pagina) ->
+                carregarEmOrdem(poderService.buscarIds(poderes, todos, aposId, pagina.getPageSize())));
+    }
+    
+    // Pesquisa textual por relevância em nome, nome real, origem, poderes e descrição, paginada por cursor.
+    // O índice fornece os IDs em ordem de relevância; os personagens são lidos em uma única consulta
+    public PaginaCursor<ItemPesquisa> pesquisar(String texto, String cursor, Integer limite) {
+        int tamanho = limiteEfetivo(limite);
+        IndicePesquisa.PaginaAcertos pagina = indicePesquisa.pesquisar(texto, cursor, tamanho);
+        List<Long> ids = pagina.acertos().stream().map(IndicePesquisa.Acerto::id).toList();
+        Map<Long, Personagem> porId = personagemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Personagem::getId, Function.identity()));
+        List<ItemPesquisa> itens = new ArrayList<>(ids.size());
+        for (IndicePesquisa.Acerto acerto : pagina.acertos()) {
+            // Removido depois da pesquisa e antes da leitura: fica de fora da página
+            Personagem personagem = porId.get(acerto.id());
+            if (personagem != null) {
+                itens.add(new ItemPesquisa(acerto.relevancia(), personagem));
+            }
+        }
+        return new PaginaCursor<>(itens, pagina.proximoCursor(), tamanho);
+    }
+    
+    // Sugestões para o autocompletar: ID e nome dos personagens cujo nome ou nome real começa
+    // com o prefixo, dos mais acessados para os menos, sem consulta ao banco
+    public List<Sugestao> sugerir(String prefixo, Integer limite) {
+        return indiceSugestoes.sugerir(prefixo, limite);
+    }
+    
+    // Assinar o fluxo de alterações (SSE), retomando após o último evento recebido, se informado
+    public SseEmitter assinarAlteracoes(String ultimoIdEvento) {
+        return fluxoAlteracoes.assinar(ultimoIdEvento);
+    }
+    
+    // Listar personagens com apenas os campos pedidos (?fields=), lendo só as colunas correspondentes
+    public List<Map<String, Object>> listarCampos(Set<CampoPersonagem> campos, FiltroPersonagens filtro) {
+        return consultarCampos(campos, filtro, 0L, 0);
+    }
+    
+    // Listar personagens com apenas os campos pedidos, paginados por cursor
+    public PaginaCursor<Map<String, Object>> listarCamposPagina(Set<CampoPersonagem> campos, FiltroPersonagens filtro,
+                                                               String cursor, Integer limite) {
+        int tamanho = limiteEfetivo(limite);
+        long aposId = PaginaCursor.decodificar(cursor);
+        List<Map<String, Object>> resultado = consultarCampos(campos, filtro, aposId, tamanho + 1);
+        return PaginaCursor.de(resultado, tamanho, linha -> (Long) linha.get(CampoPersonagem.ID.getAtributo()));
+    }
+    
+    // Exporta todos os personagens em NDJSON (um objeto JSON por linha) direto na saída.
+    // As linhas são lidas em streaming e o contexto de persistência é limpo a cada bloco,
+    // de modo que o consumo de memória não cresce com o tamanho da tabela
+    @Transactional(readOnly = true)
+    public long exportarNdjson(OutputStream saida) throws IOException {
+        long total = 0;
+        try (Stream<Personagem> personagens = personagemRepository.streamTodos()) {
+            Iterator<Personagem> iterador = personagens.iterator();
+            while (iterador.hasNext()) {
+                saida.write(objectMapper.writeValueAsBytes(iterador.next()));
+                saida.write('\n');
+                if (++total % BLOCO_EXPORTACAO == 0) {
+                    entityManager.clear();
+                    saida.flush();
+                }
+            }
+        }
+        saida.flush();
+        return total;
+    }
+    
+    // Aplica o merge patch sobre uma cópia do estado anterior e valida o resultado
+    private Personagem mesclar(Personagem anterior, ObjectNode alteracoes) {
+        Personagem atual = new Personagem(anterior);
+        try {
+            objectMapper.readerForUpdating(atual).readValue(alteracoes);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Patch inválido: " + e.getMessage());
+        }
+        Set<ConstraintViolation<Personagem>> violacoes = validator.validate(atual);
+        if (!violacoes.isEmpty()) {
+            throw new IllegalArgumentException(violacoes.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return atual;
+    }
+    
+    private static Map<String, Object> camposAlterados(Personagem anterior, Personagem atual) {
+        Map<String, Object> alterados = new LinkedHashMap<>();
+        CAMPOS_EDITAVEIS.forEach((campo, valor) -> {
+            if (!Objects.equals(valor.apply(anterior), valor.apply(atual))) {
+                alterados.put(campo, valor.apply(atual));
+            }
+        });
+        return alterados;
+    }
+    
+    // UPDATE direto das colunas alteradas, sem carregar a entidade; retorna a quantidade de linhas afetadas
+    private int atualizarColunas(Long id, Long versao, Map<String, Object> alterados) {
+        StringBuilder jpql = new StringBuilder("UPDATE Personagem p SET p.versao = p.versao + 1");
+        alterados.keySet().forEach(campo -> jpql.append(", p.").append(campo).append(" = :").append(campo));
+        jpql.append(" WHERE p.id = :id AND p.versao = :versao");
+        
+        Query update = entityManager.createQuery(jpql.toString());
+        alterados.forEach(update::setParameter);
+        update.setParameter("id", id);
+        update.setParameter("versao", versao);
+        return update.executeUpdate();
+    }
+    
+    // Executa a consulta keyset pedindo um item a mais que o limite, para saber se há próxima página
+    private PaginaCursor<Personagem> paginar(String cursor, Integer limite,
+                                             BiFunction<Long, Pageable, List<Personagem>> consulta) {
+        int tamanho = limiteEfetivo(limite);
+        long aposId = PaginaCursor.decodificar(cursor);
+        List<Personagem> resultado = consulta.apply(aposId, PageRequest.of(0, tamanho + 1));
+        return PaginaCursor.de(resultado, tamanho, Personagem::getId);
+    }
+    
+    // Consulta por critérios montada apenas com as condições informadas, ordenada por ID.
+    // Um limite menor ou igual a zero retorna todos os resultados
+    private List<Personagem> consultarPorCriterios(FiltroPersonagens filtro, long aposId, int limite) {
+        TypedQuery<Personagem> consulta = entityManager.createQuery(
+                "SELECT p FROM Personagem p WHERE p.id > :aposId" + filtro.condicoes() + " ORDER BY p.id",
+                Personagem.class);
+        consulta.setParameter("aposId", aposId);
+        filtro.aplicarParametros(consulta);
+        if (limite > 0) {
+            consulta.setMaxResults(limite);
+        }
+        return consulta.getResultList();
+    }
+    
+    // Projeção das colunas pedidas, em ordem de ID. Buscas apenas por substring usam o índice
+    // de trigramas para obter os IDs; as demais aplicam as condições do filtro no banco.
+    // Um limite menor ou igual a zero retorna todos os resultados
+    private List<Map<String, Object>> consultarCampos(Set<CampoPersonagem> campos, FiltroPersonagens filtro,
+                                                      long aposId, int limite) {
+        String selecao = campos.stream()
+                .map(campo -> "p." + campo.getAtributo() + " AS " + campo.getAtributo())
+                .collect(Collectors.joining(", "));
+        
+        if (filtro.isApenasTexto() && indiceTrigramas.isPronto()) {
+            List<Long> ids = buscarIdsNoIndice(filtro, aposId, limite);
+            List<Map<String, Object>> linhas = new ArrayList<>(ids.size());
+            for (int inicio = 0; inicio < ids.size(); inicio += BLOCO_CARGA_IDS) {
+                TypedQuery<Tuple> consulta = entityManager.createQuery(
+                        "SELECT " + selecao + " FROM Personagem p WHERE p.id IN :ids ORDER BY p.id", Tuple.class);
+                consulta.setParameter("ids", ids.subList(inicio, Math.min(inicio + BLOCO_CARGA_IDS, ids.size())));
+                consulta.getResultList().forEach(tupla -> linhas.add(paraMapa(tupla, campos)));
+            }
+            return linhas;
+        }
+        
+        TypedQuery<Tuple> consulta = entityManager.createQuery(
+                "SELECT " + selecao + " FROM Personagem p WHERE p.id > :aposId" + filtro.condicoes() + " ORDER BY p.id",
+                Tuple.class);
+        consulta.setParameter("aposId", aposId);
+        filtro.aplicarParametros(consulta);
+        if (limite > 0) {
+            consulta.setMaxResults(limite);
+        }
+        List<Tuple> tuplas = consulta.getResultList();
+        List<Map<String, Object>> linhas = new ArrayList<>(tuplas.size());
+        tuplas.forEach(tupla -> linhas.add(paraMapa(tupla, campos)));
+        return linhas;
+    }
+    
+    private List<Long> buscarIdsNoIndice(FiltroPersonagens filtro, long aposId, int limite) {
+        if (filtro.getNome() != null) {
+            return indiceTrigramas.buscar(CampoBusca.NOME, filtro.getNome(), aposId, limite);
+        }
+        if (filtro.getNomeReal() != null) {
+            return indiceTrigramas.buscar(CampoBusca.NOME_REAL, filtro.getNomeReal(), aposId, limite);
+        }
+        return indiceTrigramas.buscar(CampoBusca.ORIGEM, filtro.getOrigem(), aposId, limite);
+    }
+    
+    // Linha da projeção com os campos na ordem pedida; campos nulos são mantidos, como no JSON completo
+    private static Map<String, Object> paraMapa(Tuple tupla, Set<CampoPersonagem> campos) {
+        Map<String, Object> linha = new LinkedHashMap<>();
+        for (CampoPersonagem campo : campos) {
+            linha.put(campo.getAtributo(), tupla.get(campo.getAtributo()));
+        }
+        return linha;
+    }
+    
+    // O índice de trigramas atende o filtro quando o nome é o único critério;
+    // combinado com afiliação/status, a consulta no banco filtra primeiro pelas colunas exatas
+    private boolean usarIndiceNoFiltro(String nome, String afiliacao, StatusPersonagem status) {
+        return nome != null && afiliacao == null && status == null && indiceTrigramas.isPronto();
+    }
+    
+    // Busca por substring no índice em memória e carrega as entidades encontradas, em ordem de ID
+    private List<Personagem> buscarNoIndice(CampoBusca campo, String termo, long aposId, int limite) {
+        return carregarEmOrdem(indiceTrigramas.buscar(campo, termo, aposId, limite));
+    }
+    
+    // Carrega os personagens dos IDs (em ordem crescente) em blocos, mantendo a ordem de ID
+    private List<Personagem> carregarEmOrdem(List<Long> ids) {
+        List<Personagem> personagens = new ArrayList<>(ids.size());
+        for (int inicio = 0; inicio < ids.size(); inicio += BLOCO_CARGA_IDS) {
+            List<Personagem> bloco = new ArrayList<>(personagemRepository.findAllById(
+                    ids.subList(inicio, Math.min(inicio + BLOCO_CARGA_IDS, ids.size()))));
+            bloco.sort(Comparator.comparing(Personagem::getId));
+            personagens.addAll(bloco);
+        }
+        return personagens;
+    }
+    
+    // Aplica o limite padrão e o teto configurado para o tamanho da página
+    private int limiteEfetivo(Integer limite) {
+        if (limite == null || limite <= 0) {
+            return limitePadrao;
+        }
+        return Math.min(limite, limiteMaximo);
     }
 }
-
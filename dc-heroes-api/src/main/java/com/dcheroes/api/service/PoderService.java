@@ -0,0 +1,237 @@
+package com.dcheroes.api.service;
+
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.model.PersonagemPoder;
+import com.dcheroes.api.model.Poder;
+import com.dcheroes.api.repository.PoderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Catálogo normalizado de poderes e vínculos com os personagens.
+ *
+ * A lista em texto (Personagem.poderes) continua sendo o campo da API; a cada gravação os
+ * vínculos do personagem são refeitos a partir dela, na mesma transação. As buscas por poder
+ * usam os vínculos indexados em vez de comparar o texto de cada linha.
+ */
+@Service
+public class PoderService {
+
+    // Quantidade máxima de IDs por DELETE ao substituir vínculos
+    private static final int BLOCO_IDS = 1000;
+
+    // SQLSTATE de violação de restrição única e de alteração concorrente (H2)
+    private static final Set<String> CONCORRENCIA = Set.of("23505", "90131");
+
+    @Autowired
+    private PoderRepository poderRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // ID de cada poder já confirmado no banco, pela chave; o catálogo é pequeno e poderes não são removidos
+    private final Map<String, Long> idsPorChave = new ConcurrentHashMap<>();
+
+    // IDs, em ordem crescente e após "aposId", dos personagens que têm todos os poderes (ou ao menos
+    // um deles, com "todos" falso). Um limite menor ou igual a zero retorna todos os resultados
+    public List<Long> buscarIds(Collection<String> nomes, boolean todos, long aposId, int limite) {
+        Set<Long> poderIds = new LinkedHashSet<>();
+        for (String nome : nomes) {
+            String chave = Poder.chave(nome);
+            if (chave.isEmpty()) {
+                continue;
+            }
+            Long poderId = idExistente(chave);
+            if (poderId != null) {
+                poderIds.add(poderId);
+            } else if (todos) {
+                // Um poder que nenhum personagem tem esvazia a interseção
+                return List.of();
+            }
+        }
+        if (poderIds.isEmpty()) {
+            return List.of();
+        }
+
+        int maximo = limite > 0 ? limite : Integer.MAX_VALUE;
+        List<Long> lista = new ArrayList<>(poderIds);
+        if (lista.size() == 1) {
+            return poderRepository.idsComPoder(lista.get(0), aposId, maximo);
+        }
+        if (todos) {
+            List<Long> outros = lista.subList(1, lista.size());
+            return poderRepository.idsComTodosPoderes(lista.get(0), outros, outros.size(), aposId, maximo);
+        }
+        // União: cada poder contribui com no máximo "limite" IDs após o cursor, já ordenados pelo índice
+        TreeSet<Long> uniao = new TreeSet<>();
+        for (Long poderId : lista) {
+            uniao.addAll(poderRepository.idsComPoder(poderId, aposId, maximo));
+        }
+        return uniao.stream().limit(maximo).toList();
+    }
+
+    // Cadastra os poderes ainda desconhecidos das listas dos personagens, em transação curta própria.
+    // O lote chama antes da transação de cada bloco: blocos gravados em paralelo não esperam pelos
+    // poderes novos uns dos outros até o fim da transação do bloco
+    @Transactional
+    public void cadastrar(Collection<Personagem> personagens) {
+        for (Personagem personagem : personagens) {
+            Poder.separar(personagem.getPoderes()).forEach(this::idDoPoder);
+        }
+    }
+
+    // Grava os vínculos dos personagens (já com ID) com os poderes da lista em texto de cada um.
+    // Com "substituir", remove antes os vínculos existentes. Deve ser chamado dentro da transação
+    // que grava os personagens
+    public void vincular(Collection<Personagem> personagens, boolean substituir) {
+        if (personagens.isEmpty()) {
+            return;
+        }
+        // Um mesmo personagem pode vir repetido em um lote: vale a última versão
+        Map<Long, String> poderesPorId = new LinkedHashMap<>();
+        for (Personagem personagem : personagens) {
+            poderesPorId.put(personagem.getId(), personagem.getPoderes());
+        }
+        // Os vínculos referenciam os personagens, que precisam ser inseridos antes
+        entityManager.flush();
+        if (substituir) {
+            List<Long> ids = new ArrayList<>(poderesPorId.keySet());
+            for (int inicio = 0; inicio < ids.size(); inicio += BLOCO_IDS) {
+                entityManager.createQuery("DELETE FROM PersonagemPoder v WHERE v.personagemId IN :ids")
+                        .setParameter("ids", ids.subList(inicio, Math.min(inicio + BLOCO_IDS, ids.size())))
+                        .executeUpdate();
+            }
+        }
+        poderesPorId.forEach((personagemId, poderes) -> {
+            for (Map.Entry<String, String> poder : Poder.separar(poderes).entrySet()) {
+                entityManager.persist(new PersonagemPoder(personagemId, idDoPoder(poder.getKey(), poder.getValue())));
+            }
+        });
+    }
+
+    private Long idExistente(String chave) {
+        Long id = idsPorChave.get(chave);
+        if (id == null) {
+            id = poderRepository.findByChave(chave).map(Poder::getId).orElse(null);
+            if (id != null) {
+                idsPorChave.put(chave, id);
+            }
+        }
+        return id;
+    }
+
+    // ID do poder, cadastrando-o se ainda não existir. O cadastro usa a conexão da transação que
+    // grava o personagem, sem pedir uma segunda conexão ao pool; o ID de um poder novo só vai para
+    // o mapa compartilhado depois do commit, para que nunca seja o de uma transação desfeita
+    private Long idDoPoder(String chave, String nome) {
+        Long id = idsPorChave.get(chave);
+        if (id != null) {
+            return id;
+        }
+        Map<String, Long> novos = novosNaTransacao();
+        id = novos.get(chave);
+        if (id != null) {
+            return id;
+        }
+        Cadastro cadastro = entityManager.unwrap(Session.class).doReturningWork(conexao -> cadastrar(conexao, chave, nome));
+        if (cadastro.novo()) {
+            novos.put(chave, cadastro.id());
+        } else {
+            idsPorChave.put(chave, cadastro.id());
+        }
+        return cadastro.id();
+    }
+
+    // Poderes cadastrados pela transação atual, levados para o mapa compartilhado no commit
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> novosNaTransacao() {
+        Map<String, Long> novos = (Map<String, Long>) TransactionSynchronizationManager.getResource(this);
+        if (novos == null) {
+            Map<String, Long> criados = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, criados);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    idsPorChave.putAll(criados);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(PoderService.this);
+                }
+            });
+            novos = criados;
+        }
+        return novos;
+    }
+
+    // Lê o poder pela chave ou o insere. Se outra transação inserir a mesma chave ao mesmo tempo,
+    // o INSERT espera por ela e falha na restrição única (ou por alteração concorrente); a falha é desfeita até o savepoint e o
+    // poder é lido de novo, já confirmado pela outra transação
+    private static Cadastro cadastrar(Connection conexao, String chave, String nome) throws SQLException {
+        Long existente = idPorChave(conexao, chave);
+        if (existente != null) {
+            return new Cadastro(existente, false);
+        }
+        long id;
+        try (Statement proximo = conexao.createStatement();
+             ResultSet resultado = proximo.executeQuery("SELECT NEXT VALUE FOR poderes_seq")) {
+            resultado.next();
+            id = resultado.getLong(1);
+        }
+        Savepoint antes = conexao.setSavepoint();
+        try (PreparedStatement inserir = conexao.prepareStatement("INSERT INTO poderes (id, nome, chave) VALUES (?, ?, ?)")) {
+            inserir.setLong(1, id);
+            inserir.setString(2, nome);
+            inserir.setString(3, chave);
+            inserir.executeUpdate();
+            conexao.releaseSavepoint(antes);
+            return new Cadastro(id, true);
+        } catch (SQLException e) {
+            if (!CONCORRENCIA.contains(e.getSQLState())) {
+                throw e;
+            }
+            conexao.rollback(antes);
+            existente = idPorChave(conexao, chave);
+            if (existente == null) {
+                throw e;
+            }
+            return new Cadastro(existente, false);
+        }
+    }
+
+    private static Long idPorChave(Connection conexao, String chave) throws SQLException {
+        try (PreparedStatement consulta = conexao.prepareStatement("SELECT id FROM poderes WHERE chave = ?")) {
+            consulta.setString(1, chave);
+            try (ResultSet resultado = consulta.executeQuery()) {
+                return resultado.next() ? resultado.getLong(1) : null;
+            }
+        }
+    }
+
+    private record Cadastro(long id, boolean novo) {
+    }
+}
@@ -0,0 +1,68 @@
+package db.migration;
+
+import com.dcheroes.api.model.Poder;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Separa a lista em texto de poderes de cada personagem existente no catálogo (poderes)
+ * e nos vínculos (personagem_poderes), com a mesma normalização usada pela aplicação.
+ * Em Java porque a separação e a remoção de acentos não têm equivalente direto em SQL.
+ */
+public class V6__separar_poderes extends BaseJavaMigration {
+
+    private static final int LOTE = 1000;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection conexao = context.getConnection();
+        Map<String, Long> ids = new HashMap<>();
+        try (Statement consulta = conexao.createStatement();
+             PreparedStatement proximoId = conexao.prepareStatement("SELECT NEXT VALUE FOR poderes_seq");
+             PreparedStatement inserirPoder = conexao.prepareStatement(
+                     "INSERT INTO poderes (id, nome, chave) VALUES (?, ?, ?)");
+             PreparedStatement vincular = conexao.prepareStatement(
+                     "INSERT INTO personagem_poderes (personagem_id, poder_id) VALUES (?, ?)")) {
+            consulta.setFetchSize(LOTE);
+            int pendentes = 0;
+            try (ResultSet linhas = consulta.executeQuery(
+                    "SELECT id, poderes FROM personagens WHERE poderes IS NOT NULL ORDER BY id")) {
+                while (linhas.next()) {
+                    long personagemId = linhas.getLong(1);
+                    for (Map.Entry<String, String> poder : Poder.separar(linhas.getString(2)).entrySet()) {
+                        Long poderId = ids.get(poder.getKey());
+                        if (poderId == null) {
+                            poderId = proximoValor(proximoId);
+                            inserirPoder.setLong(1, poderId);
+                            inserirPoder.setString(2, poder.getValue());
+                            inserirPoder.setString(3, poder.getKey());
+                            inserirPoder.executeUpdate();
+                            ids.put(poder.getKey(), poderId);
+                        }
+                        vincular.setLong(1, personagemId);
+                        vincular.setLong(2, poderId);
+                        vincular.addBatch();
+                        if (++pendentes % LOTE == 0) {
+                            vincular.executeBatch();
+                        }
+                    }
+                }
+            }
+            vincular.executeBatch();
+        }
+    }
+
+    private static long proximoValor(PreparedStatement proximoId) throws Exception {
+        try (ResultSet resultado = proximoId.executeQuery()) {
+            resultado.next();
+            return resultado.getLong(1);
+        }
+    }
+}
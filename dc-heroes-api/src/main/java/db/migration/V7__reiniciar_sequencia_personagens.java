@@ -0,0 +1,37 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Cria (se faltar) e reposiciona a sequence dos IDs de personagem depois do maior ID existente.
+ *
+ * Bancos criados com IDs IDENTITY não têm a sequence, e uma sequence criada a partir de 1 em
+ * uma tabela já populada gera IDs repetidos. O otimizador pooled do Hibernate usa o valor lido
+ * como o fim do bloco de 50 IDs, então o reinício fica em MAX(id) + 50: o primeiro bloco começa
+ * em MAX(id) + 1. Em Java porque o H2 não aceita uma subconsulta no RESTART WITH.
+ */
+public class V7__reiniciar_sequencia_personagens extends BaseJavaMigration {
+
+    // Mesmo allocationSize do @SequenceGenerator de Personagem
+    private static final long INCREMENTO = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement comando = context.getConnection().createStatement()) {
+            comando.execute("CREATE SEQUENCE IF NOT EXISTS personagens_seq START WITH 1 INCREMENT BY " + INCREMENTO);
+            long maiorId;
+            try (ResultSet resultado = comando.executeQuery("SELECT COALESCE(MAX(id), 0) FROM personagens")) {
+                resultado.next();
+                maiorId = resultado.getLong(1);
+            }
+            if (maiorId > 0) {
+                comando.execute("ALTER SEQUENCE personagens_seq RESTART WITH " + (maiorId + INCREMENTO)
+                        + " INCREMENT BY " + INCREMENTO);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+-- Estrutura inicial da tabela de personagens (equivalente à gerada antes pelo ddl-auto)
+CREATE SEQUENCE IF NOT EXISTS personagens_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS personagens (
+    id                BIGINT        NOT NULL,
+    nome              VARCHAR(100)  NOT NULL,
+    nome_real         VARCHAR(100),
+    origem            VARCHAR(150),
+    universo          VARCHAR(100),
+    poderes           VARCHAR(500),
+    afiliacao         VARCHAR(100),
+    primeira_aparicao VARCHAR(50),
+    status            VARCHAR(20),
+    descricao         VARCHAR(1000),
+    imagem_url        VARCHAR(500),
+    alinhamento       VARCHAR(20),
+    CONSTRAINT pk_personagens PRIMARY KEY (id)
+);
@@ -0,0 +1,10 @@
+-- Nome em minúsculas como coluna gerada: faz o papel de índice funcional LOWER(nome)
+-- para a verificação de existência por nome, sem diferenciar maiúsculas/minúsculas
+ALTER TABLE personagens ADD COLUMN IF NOT EXISTS nome_lower VARCHAR(100) GENERATED ALWAYS AS (LOWER(nome));
+CREATE INDEX IF NOT EXISTS idx_personagens_nome_lower ON personagens (nome_lower);
+
+-- Filtros por igualdade; o ID no fim do índice atende também a paginação por cursor
+-- ("coluna = ? AND id > ? ORDER BY id") sem ordenação adicional
+CREATE INDEX IF NOT EXISTS idx_personagens_afiliacao ON personagens (afiliacao, id);
+CREATE INDEX IF NOT EXISTS idx_personagens_status ON personagens (status, id);
+CREATE INDEX IF NOT EXISTS idx_personagens_alinhamento ON personagens (alinhamento, id);
@@ -0,0 +1,3 @@
+-- Contagem de referências aos arquivos de upload: antes de apagar uma imagem,
+-- verifica-se se algum personagem ainda aponta para ela
+CREATE INDEX IF NOT EXISTS idx_personagens_imagem_url ON personagens (imagem_url);
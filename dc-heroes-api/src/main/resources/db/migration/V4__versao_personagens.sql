@@ -0,0 +1,3 @@
+-- Controle de concorrência otimista: cada UPDATE incrementa a versão e só é aplicado
+-- se a versão lida ainda for a atual
+ALTER TABLE personagens ADD COLUMN IF NOT EXISTS versao BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,24 @@
+-- Catálogo de poderes normalizado a partir da coluna em texto personagens.poderes
+-- (preenchido pela migração V6, em Java). A chave é o nome sem acentos e em minúsculas
+CREATE SEQUENCE IF NOT EXISTS poderes_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS poderes (
+    id    BIGINT       NOT NULL,
+    nome  VARCHAR(500) NOT NULL,
+    chave VARCHAR(500) NOT NULL,
+    CONSTRAINT pk_poderes PRIMARY KEY (id),
+    CONSTRAINT uk_poderes_chave UNIQUE (chave)
+);
+
+-- Vínculos personagem-poder. A chave primária atende a troca dos poderes de um personagem;
+-- o índice por (poder_id, personagem_id) atende a busca por poder já na ordem de ID, paginada
+-- por cursor. Remover o personagem remove seus vínculos
+CREATE TABLE IF NOT EXISTS personagem_poderes (
+    personagem_id BIGINT NOT NULL,
+    poder_id      BIGINT NOT NULL,
+    CONSTRAINT pk_personagem_poderes PRIMARY KEY (personagem_id, poder_id),
+    CONSTRAINT fk_personagem_poderes_personagem FOREIGN KEY (personagem_id) REFERENCES personagens (id) ON DELETE CASCADE,
+    CONSTRAINT fk_personagem_poderes_poder FOREIGN KEY (poder_id) REFERENCES poderes (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_personagem_poderes_poder ON personagem_poderes (poder_id, personagem_id);
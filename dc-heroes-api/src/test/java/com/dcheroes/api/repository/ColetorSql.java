@@ -0,0 +1,35 @@
+package com.dcheroes.api.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Guarda o SQL de cada comando que o Hibernate envia ao banco, para que os testes verifiquem
+ * o plano de execução do SQL realmente gerado pelas consultas. Registrado pela propriedade
+ * hibernate.session_factory.statement_inspector, que instancia a classe pelo construtor padrão.
+ */
+public class ColetorSql implements StatementInspector {
+
+    private static final Set<String> COMANDOS = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    @Override
+    public String inspect(String sql) {
+        COMANDOS.add(sql.replaceAll("\\s+", " ").trim());
+        return sql;
+    }
+
+    public static void limpar() {
+        COMANDOS.clear();
+    }
+
+    public static List<String> coletados() {
+        synchronized (COMANDOS) {
+            return new ArrayList<>(COMANDOS);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.dcheroes.api.repository;
+
+import com.dcheroes.api.config.DataInitializer;
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.model.StatusPersonagem;
+import com.dcheroes.api.model.enums.CampoPersonagem;
+import com.dcheroes.api.model.enums.DimensaoFaceta;
+import com.dcheroes.api.service.FacetasService;
+import com.dcheroes.api.service.FiltroPersonagens;
+import com.dcheroes.api.service.PersonagemLoteService;
+import com.dcheroes.api.service.PersonagemService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Executa as consultas de personagens sobre uma base populada e verifica o plano de execução
+ * (EXPLAIN) do SQL que o Hibernate gerou para cada uma: nenhuma pode fazer varredura completa
+ * da tabela, exceto as que leem a tabela inteira por definição (sem WHERE: listagem completa,
+ * exportação, carga dos índices e dos contadores de facetas) e as buscas por substring (LIKE), que no caminho normal são
+ * atendidas pelo índice de trigramas.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:planos-consulta;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.dcheroes.api.repository.ColetorSql",
+        "spring.h2.console.enabled=false",
+        "app.seed.count=" + PlanosConsultaTest.VOLUME,
+        "app.pesquisa.diretorio=target/indices/pesquisa-planos",
+        "app.upload.dir=target/uploads-planos"
+})
+class PlanosConsultaTest {
+
+    static final int VOLUME = 20_000;
+
+    private static final Pageable PAGINA = PageRequest.of(0, 21);
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    @Autowired
+    private PersonagemRepository personagemRepository;
+
+    @Autowired
+    private PoderRepository poderRepository;
+
+    @Autowired
+    private PersonagemService personagemService;
+
+    @Autowired
+    private PersonagemLoteService personagemLoteService;
+
+    @Autowired
+    private FacetasService facetasService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void consultasNaoFazemVarreduraCompleta() throws Exception {
+        dataInitializer.getConclusao().join();
+        // Estatísticas de seletividade usadas pelo otimizador do H2
+        jdbcTemplate.execute("ANALYZE");
+
+        executarConsultas();
+
+        List<String> regressoes = new ArrayList<>();
+        for (String sql : ColetorSql.coletados()) {
+            String comando = sql.toLowerCase(Locale.ROOT);
+            if (!(comando.startsWith("select") || comando.startsWith("update") || comando.startsWith("delete"))) {
+                continue;
+            }
+            String plano = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+            if (plano.contains(".tableScan") && !varreduraEsperada(comando)) {
+                regressoes.add(sql + "\n" + plano);
+            }
+        }
+        assertThat(regressoes).as("Consultas com varredura completa da tabela").isEmpty();
+    }
+
+    // Consultas de leitura e gravação atendidas pelo banco, com valores presentes na carga inicial
+    private void executarConsultas() throws Exception {
+        ColetorSql.limpar();
+
+        personagemRepository.findById(1L);
+        personagemRepository.findByIdGreaterThanOrderByIdAsc(0L, PAGINA);
+        personagemRepository.findByAfiliacao("Liga da Justiça");
+        personagemRepository.findByAfiliacaoAndIdGreaterThanOrderByIdAsc("Liga da Justiça", 0L, PAGINA);
+        personagemRepository.findByStatus(StatusPersonagem.ATIVO);
+        personagemRepository.findByStatusAndIdGreaterThanOrderByIdAsc(StatusPersonagem.ATIVO, 0L, PAGINA);
+        personagemRepository.existePorNome("Superman");
+        personagemRepository.existsByImagemUrl("/uploads/superman.jpg");
+        personagemRepository.findByNomeContainingIgnoreCase("man");
+        personagemRepository.findByNomeRealContainingIgnoreCase("kent");
+        personagemRepository.findByOrigemContainingIgnoreCase("city");
+        personagemRepository.findByNomeContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc("man", 0L, PAGINA);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try (Stream<Personagem> todos = personagemRepository.streamTodos()) {
+                todos.findFirst();
+            }
+        });
+
+        personagemService.buscarPorMultiplosCriteriosPagina(null, "Liga da Justiça", StatusPersonagem.ATIVO, null, 20);
+        personagemService.buscarPorMultiplosCriteriosPagina("man", null, StatusPersonagem.ATIVO, null, 20);
+        personagemService.listarCamposPagina(CampoPersonagem.deLista("id,nome,alinhamento"),
+                new FiltroPersonagens(null, "Liga da Justiça", null), null, 20);
+        facetasService.contar(Set.of(DimensaoFaceta.STATUS, DimensaoFaceta.ALINHAMENTO), null, "Liga da Justiça", null);
+
+        poderRepository.findByChave("voo");
+        personagemService.buscarPorPoderesPagina(List.of("voo"), true, null, 20);
+        personagemService.buscarPorPoderesPagina(List.of("voo", "super forca"), true, null, 20);
+        personagemService.buscarPorPoderesPagina(List.of("voo", "super forca"), false, null, 20);
+
+        Personagem novo = new Personagem("Verificação de Planos", null, null, null, "voo, invisibilidade", "Teste",
+                null, StatusPersonagem.ATIVO, null, null, null);
+        Personagem criado = personagemService.criar(novo);
+        Personagem alterado = new Personagem(criado);
+        alterado.setPoderes("voo");
+        personagemService.atualizar(criado.getId(), alterado, null);
+        personagemService.aplicarPatch(criado.getId(), objectMapper.readTree("{\"poderes\": \"invisibilidade\"}"), null);
+        personagemService.deletar(criado.getId());
+
+        Personagem emLote = new Personagem("Verificação de Planos em Lote", null, null, null, "voo, invisibilidade",
+                "Teste", null, StatusPersonagem.ATIVO, null, null, null);
+        Long idLote = personagemLoteService.criar(List.of(emLote).iterator()).getItens().get(0).getId();
+        assertThat(idLote).as("ID do personagem criado em lote").isNotNull();
+        Personagem alteradoEmLote = new Personagem("Verificação de Planos em Lote", null, null, null, "voo, super força",
+                "Teste", null, StatusPersonagem.ATIVO, null, null, null);
+        alteradoEmLote.setId(idLote);
+        personagemLoteService.atualizar(List.of(alteradoEmLote).iterator());
+        personagemLoteService.deletar(List.of(idLote));
+    }
+
+    // Sem WHERE (ou só com "1 = 1", base das consultas montadas com filtros opcionais), a consulta
+    // lê a tabela inteira por definição; com apenas condições LIKE, é o fallback das buscas por
+    // substring enquanto o índice de trigramas carrega
+    private static boolean varreduraEsperada(String comando) {
+        int where = comando.indexOf(" where ");
+        if (where < 0) {
+            return true;
+        }
+        String condicoes = comando.substring(where + " where ".length()).split(" (group by|order by|offset|fetch) ")[0];
+        for (String condicao : condicoes.split(" and ")) {
+            if (!condicao.equals("1=1") && !condicao.contains(" like ")) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
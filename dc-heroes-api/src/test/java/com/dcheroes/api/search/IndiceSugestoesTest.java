@@ -0,0 +1,226 @@
+package com.dcheroes.api.search;
+
+import com.dcheroes.api.config.DataInitializer;
+import com.dcheroes.api.event.PersonagemAlteradoEvent;
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.model.StatusPersonagem;
+import com.dcheroes.api.model.dto.Sugestao;
+import com.dcheroes.api.repository.PersonagemRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica a árvore de prefixos das sugestões: consultas que terminam dentro de um balde,
+ * divisão de baldes cheios, nomes que são prefixo de outros (terminais), remoção e
+ * renomeação e a reordenação dos melhores de cada nó pela popularidade. O índice é
+ * carregado de um repositório simulado, sem banco.
+ */
+class IndiceSugestoesTest {
+
+    private static final int LIMITE_MAXIMO = 10;
+
+    private final List<Personagem> personagens = new ArrayList<>();
+    private IndiceSugestoes indice;
+    private long proximoId = 1;
+
+    @BeforeEach
+    void criarIndice() {
+        indice = new IndiceSugestoes(mock(PlatformTransactionManager.class), LIMITE_MAXIMO);
+        PersonagemRepository repositorio = mock(PersonagemRepository.class);
+        when(repositorio.streamTodos()).thenAnswer(invocacao -> new ArrayList<>(personagens).stream());
+        DataInitializer dataInitializer = mock(DataInitializer.class);
+        when(dataInitializer.getConclusao()).thenReturn(CompletableFuture.completedFuture(0L));
+        ReflectionTestUtils.setField(indice, "personagemRepository", repositorio);
+        ReflectionTestUtils.setField(indice, "entityManager", mock(EntityManager.class));
+        ReflectionTestUtils.setField(indice, "dataInitializer", dataInitializer);
+    }
+
+    @AfterEach
+    void encerrarIndice() {
+        indice.encerrar();
+    }
+
+    @Test
+    void prefixoTerminaDentroDoBalde() throws Exception {
+        cadastrar("Superman", "Clark Kent");
+        cadastrar("Supergirl", "Kara Zor-El");
+        cadastrar("Superboy", "Conner Kent");
+        cadastrar("Batman", "Bruce Wayne");
+        carregar();
+
+        // Empate de popularidade: o nome mais curto e, entre iguais, o menor ID
+        assertThat(nomes(indice.sugerir("supe", null))).containsExactly("Superman", "Superboy", "Supergirl");
+        assertThat(nomes(indice.sugerir("SÚPERG", null))).containsExactly("Supergirl");
+        assertThat(nomes(indice.sugerir("clark", null))).containsExactly("Superman");
+        assertThat(indice.sugerir("superx", null)).isEmpty();
+        assertThat(indice.sugerir("  ", null)).isEmpty();
+    }
+
+    @Test
+    void baldeCheioEDivididoSemPerderTermos() throws Exception {
+        for (int i = 1; i <= 40; i++) {
+            cadastrar(String.format("Lanterna %02d", i), null);
+        }
+        cadastrar("Lex Luthor", null);
+        carregar();
+
+        assertThat(nomes(indice.sugerir("lanterna", null))).containsExactly(
+                "Lanterna 01", "Lanterna 02", "Lanterna 03", "Lanterna 04", "Lanterna 05",
+                "Lanterna 06", "Lanterna 07", "Lanterna 08", "Lanterna 09", "Lanterna 10");
+        assertThat(nomes(indice.sugerir("lanterna 3", null))).containsExactly(
+                "Lanterna 30", "Lanterna 31", "Lanterna 32", "Lanterna 33", "Lanterna 34",
+                "Lanterna 35", "Lanterna 36", "Lanterna 37", "Lanterna 38", "Lanterna 39");
+        assertThat(nomes(indice.sugerir("lanterna 40", null))).containsExactly("Lanterna 40");
+        assertThat(nomes(indice.sugerir("le", null))).containsExactly("Lex Luthor");
+        assertThat(indice.sugerir("l", 3)).hasSize(3);
+
+        // Inclusões depois da carga também dividem os baldes
+        for (int i = 1; i <= 20; i++) {
+            criar(String.format("Lanterna 5%02d", i), null);
+        }
+        assertThat(nomes(indice.sugerir("lanterna 51", null))).containsExactly(
+                "Lanterna 510", "Lanterna 511", "Lanterna 512", "Lanterna 513", "Lanterna 514",
+                "Lanterna 515", "Lanterna 516", "Lanterna 517", "Lanterna 518", "Lanterna 519");
+    }
+
+    @Test
+    void nomeIgualAoPrefixoDeOutroFicaNosTerminais() throws Exception {
+        for (int i = 1; i <= 20; i++) {
+            cadastrar(String.format("Flash %02d", i), null);
+        }
+        Personagem flash = cadastrar("Flash", "Barry Allen");
+        carregar();
+
+        assertThat(nomes(indice.sugerir("flash", null))).startsWith("Flash", "Flash 01");
+        assertThat(nomes(indice.sugerir("flas", null))).startsWith("Flash", "Flash 01");
+        assertThat(nomes(indice.sugerir("flash 0", null))).doesNotContain("Flash").hasSize(9);
+
+        remover(flash);
+        assertThat(nomes(indice.sugerir("flash", null))).startsWith("Flash 01").doesNotContain("Flash");
+        assertThat(indice.sugerir("barry", null)).isEmpty();
+    }
+
+    @Test
+    void remocaoERenomeacaoRetiramOsTermosAntigos() throws Exception {
+        List<Personagem> robins = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            robins.add(cadastrar(String.format("Robin %02d", i), null));
+        }
+        carregar();
+
+        Personagem anterior = robins.get(4);
+        Personagem renomeado = new Personagem(anterior);
+        renomeado.setNome("Asa Noturna");
+        renomeado.setNomeReal("Dick Grayson");
+        indice.aoAlterarPersonagem(PersonagemAlteradoEvent.atualizado(anterior, renomeado));
+
+        assertThat(indice.sugerir("robin 05", null)).isEmpty();
+        assertThat(ids(indice.sugerir("asa", null))).containsExactly(anterior.getId());
+        assertThat(ids(indice.sugerir("dick", null))).containsExactly(anterior.getId());
+        assertThat(nomes(indice.sugerir("robin 0", null))).containsExactly(
+                "Robin 01", "Robin 02", "Robin 03", "Robin 04", "Robin 06", "Robin 07", "Robin 08", "Robin 09");
+
+        remover(robins.get(0));
+        remover(renomeado);
+        assertThat(indice.sugerir("asa", null)).isEmpty();
+        assertThat(nomes(indice.sugerir("robin", null))).startsWith("Robin 02", "Robin 03").hasSize(10)
+                .doesNotContain("Robin 01");
+    }
+
+    @Test
+    void popularidadeReordenaOsMelhores() throws Exception {
+        for (int i = 1; i <= 20; i++) {
+            cadastrar(String.format("Bat %02d", i), null);
+        }
+        Personagem batman = cadastrar("Batman", "Bruce Wayne");
+        Personagem batwoman = cadastrar("Batwoman", "Kate Kane");
+        carregar();
+
+        assertThat(nomes(indice.sugerir("bat", 3))).containsExactly("Bat 01", "Bat 02", "Bat 03");
+
+        acessar(batwoman, 3);
+        indice.aplicarPopularidade();
+        assertThat(nomes(indice.sugerir("bat", 3))).containsExactly("Batwoman", "Bat 01", "Bat 02");
+        assertThat(nomes(indice.sugerir("kate", null))).containsExactly("Batwoman");
+
+        acessar(batman, 5);
+        indice.aplicarPopularidade();
+        assertThat(nomes(indice.sugerir("bat", 3))).containsExactly("Batman", "Batwoman", "Bat 01");
+        assertThat(nomes(indice.sugerir("batw", null))).containsExactly("Batwoman");
+    }
+
+    @Test
+    void acessosAIdsNaoIndexadosNaoSaoContados() throws Exception {
+        Personagem batman = cadastrar("Batman", null);
+        carregar();
+
+        indice.registrarAcesso(9_999L);
+        indice.registrarAcesso(null);
+        assertThat(acessosPendentes()).isEmpty();
+
+        indice.registrarAcesso(batman.getId());
+        assertThat(acessosPendentes()).containsOnlyKeys(batman.getId());
+    }
+
+    private Personagem cadastrar(String nome, String nomeReal) {
+        Personagem personagem = novo(nome, nomeReal);
+        personagens.add(personagem);
+        return personagem;
+    }
+
+    private void criar(String nome, String nomeReal) {
+        indice.aoAlterarPersonagem(PersonagemAlteradoEvent.criado(novo(nome, nomeReal)));
+    }
+
+    private void remover(Personagem personagem) {
+        indice.aoAlterarPersonagem(PersonagemAlteradoEvent.removido(personagem));
+    }
+
+    private Personagem novo(String nome, String nomeReal) {
+        Personagem personagem = new Personagem(nome, nomeReal, null, null, null, null, null,
+                StatusPersonagem.ATIVO, null, null, null);
+        personagem.setId(proximoId++);
+        return personagem;
+    }
+
+    // A carga roda em segundo plano, ao fim da carga inicial de dados (aqui já concluída)
+    private void carregar() throws InterruptedException {
+        indice.aoIniciarAplicacao();
+        for (int espera = 0; !indice.isPronto() && espera < 500; espera++) {
+            Thread.sleep(10);
+        }
+        assertThat(indice.isPronto()).as("índice carregado").isTrue();
+    }
+
+    private void acessar(Personagem personagem, int vezes) {
+        for (int i = 0; i < vezes; i++) {
+            indice.registrarAcesso(personagem.getId());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, ?> acessosPendentes() {
+        return (Map<Long, ?>) ReflectionTestUtils.getField(indice, "acessos");
+    }
+
+    private static List<String> nomes(List<Sugestao> sugestoes) {
+        return sugestoes.stream().map(Sugestao::getNome).toList();
+    }
+
+    private static List<Long> ids(List<Sugestao> sugestoes) {
+        return sugestoes.stream().map(Sugestao::getId).toList();
+    }
+}
@@ -0,0 +1,38 @@
+package com.dcheroes.benchmarks;
+
+import com.dcheroes.api.DcHeroesApiApplication;
+import com.dcheroes.api.config.DataInitializer;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+
+/**
+ * Sobe a aplicação sem servidor web sobre um banco H2 em arquivo com o volume pedido.
+ * Os bancos ficam em target/bancos e são reaproveitados entre execuções, então a carga
+ * de 1 milhão de linhas só acontece na primeira vez. A carga é a da própria aplicação
+ * (app.seed.count), aguardada antes de devolver o contexto.
+ */
+final class ContextoBenchmark {
+
+    private ContextoBenchmark() {}
+
+    static ConfigurableApplicationContext iniciar(long volume, Path diretorioUploads) {
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(DcHeroesApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:file:./target/bancos/personagens-" + volume,
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "spring.h2.console.enabled=false",
+                        "app.upload.dir=" + diretorioUploads,
+                        "app.seed.count=" + volume,
+                        "app.pesquisa.diretorio=./target/indices/pesquisa-" + volume,
+                        "logging.level.root=WARN")
+                .run();
+        contexto.getBean(DataInitializer.class).getConclusao().join();
+        return contexto;
+    }
+}
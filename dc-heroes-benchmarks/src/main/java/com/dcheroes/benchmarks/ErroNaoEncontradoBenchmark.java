@@ -0,0 +1,83 @@
+package com.dcheroes.benchmarks;
+
+import com.dcheroes.api.controller.GlobalExceptionHandler;
+import com.dcheroes.api.exception.PersonagemNaoEncontradoException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de uma resposta 404 por ID inexistente: da exceção lançada no serviço até o corpo
+ * serializado. "anterior" reproduz o caminho antigo (RuntimeException com pilha e mensagem
+ * concatenada, mapa novo com LocalDateTime.now() serializado a cada vez); "atual" usa a exceção
+ * sem pilha e a resposta pré-montada do GlobalExceptionHandler. A profundidade simula a pilha
+ * de chamadas do Spring MVC no momento em que a exceção é criada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErroNaoEncontradoBenchmark {
+
+    @Param({"10", "120"})
+    private int profundidade;
+
+    private ObjectMapper objectMapper;
+    private GlobalExceptionHandler handler;
+    private long id;
+
+    @Setup
+    public void preparar() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        handler = new GlobalExceptionHandler();
+        id = 1_000_000L;
+    }
+
+    @Benchmark
+    public byte[] anterior() throws Exception {
+        try {
+            lancarAnterior(profundidade);
+            throw new IllegalStateException();
+        } catch (RuntimeException ex) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("timestamp", LocalDateTime.now());
+            error.put("status", HttpStatus.NOT_FOUND.value());
+            error.put("error", "Recurso não encontrado");
+            error.put("message", ex.getMessage());
+            return objectMapper.writeValueAsBytes(ResponseEntity.status(HttpStatus.NOT_FOUND).body(error).getBody());
+        }
+    }
+
+    @Benchmark
+    public byte[] atual() {
+        try {
+            lancarAtual(profundidade);
+            throw new IllegalStateException();
+        } catch (PersonagemNaoEncontradoException ex) {
+            return handler.handleRecursoNaoEncontradoException(ex).getBody();
+        }
+    }
+
+    private void lancarAnterior(int restante) {
+        if (restante == 0) {
+            throw new RuntimeException("Personagem não encontrado com ID: " + id);
+        }
+        lancarAnterior(restante - 1);
+    }
+
+    private void lancarAtual(int restante) {
+        if (restante == 0) {
+            throw new PersonagemNaoEncontradoException(id);
+        }
+        lancarAtual(restante - 1);
+    }
+}
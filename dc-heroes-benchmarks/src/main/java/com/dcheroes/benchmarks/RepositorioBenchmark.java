@@ -0,0 +1,129 @@
+package com.dcheroes.benchmarks;
+
+import com.dcheroes.api.config.GeradorPersonagens;
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.model.StatusPersonagem;
+import com.dcheroes.api.repository.PersonagemRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finders do repositório contra bancos H2 em arquivo de volumes crescentes.
+ * O volume de 1 milhão de linhas leva alguns minutos para ser carregado na primeira execução.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositorioBenchmark {
+
+    private static final Pageable PAGINA = PageRequest.of(0, 21);
+
+    @Param({"10000", "100000", "1000000"})
+    private long volume;
+
+    private ConfigurableApplicationContext contexto;
+    private PersonagemRepository repository;
+    private SplittableRandom aleatorio;
+    private long maiorId;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws Exception {
+        contexto = ContextoBenchmark.iniciar(volume, Files.createTempDirectory("bench-uploads"));
+        repository = contexto.getBean(PersonagemRepository.class);
+        maiorId = repository.findAll(PageRequest.of(0, 1, Sort.by("id").descending()))
+                .getContent().get(0).getId();
+        aleatorio = new SplittableRandom(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Optional<Personagem> buscarPorId() {
+        return repository.findById(idAleatorio());
+    }
+
+    @Benchmark
+    public List<Personagem> paginaKeyset() {
+        return repository.findByIdGreaterThanOrderByIdAsc(idAleatorio(), PAGINA);
+    }
+
+    @Benchmark
+    public List<Personagem> paginaPorAfiliacao() {
+        return repository.findByAfiliacaoAndIdGreaterThanOrderByIdAsc(afiliacaoAleatoria(), idAleatorio(), PAGINA);
+    }
+
+    @Benchmark
+    public List<Personagem> paginaPorStatus() {
+        return repository.findByStatusAndIdGreaterThanOrderByIdAsc(StatusPersonagem.ATIVO, idAleatorio(), PAGINA);
+    }
+
+    @Benchmark
+    public List<Personagem> paginaPorNomeContendo() {
+        return repository.findByNomeContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc("estrela", idAleatorio(), PAGINA);
+    }
+
+    @Benchmark
+    public List<Personagem> paginaPorOrigemContendo() {
+        return repository.findByOrigemContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc("city", idAleatorio(), PAGINA);
+    }
+
+    @Benchmark
+    public List<Personagem> paginaPorNomeRealContendo() {
+        return repository.findByNomeRealContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc("wayne", idAleatorio(), PAGINA);
+    }
+
+    @Benchmark
+    public boolean existePorNome() {
+        return repository.existePorNome("Capitão Trovão " + idAleatorio());
+    }
+
+    // Finders sem paginação: os de substring usam termos seletivos, e os de afiliação/status
+    // medem o custo de materializar uma fração grande da tabela
+    @Benchmark
+    public List<Personagem> listarPorNomeContendo() {
+        return repository.findByNomeContainingIgnoreCase(" " + idAleatorio());
+    }
+
+    @Benchmark
+    public List<Personagem> listarPorNomeRealContendo() {
+        return repository.findByNomeRealContainingIgnoreCase("diana prince");
+    }
+
+    @Benchmark
+    public List<Personagem> listarPorOrigemContendo() {
+        return repository.findByOrigemContainingIgnoreCase("themyscira");
+    }
+
+    @Benchmark
+    public List<Personagem> listarPorAfiliacao() {
+        return repository.findByAfiliacao(afiliacaoAleatoria());
+    }
+
+    @Benchmark
+    public List<Personagem> listarPorStatus() {
+        return repository.findByStatus(StatusPersonagem.ATIVO);
+    }
+
+    private long idAleatorio() {
+        return aleatorio.nextLong(1, maiorId + 1);
+    }
+
+    private String afiliacaoAleatoria() {
+        return GeradorPersonagens.AFILIACOES.get(aleatorio.nextInt(GeradorPersonagens.AFILIACOES.size()));
+    }
+}
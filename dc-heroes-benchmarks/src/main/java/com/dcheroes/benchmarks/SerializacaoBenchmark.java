@@ -0,0 +1,45 @@
+package com.dcheroes.benchmarks;
+
+import com.dcheroes.api.config.GeradorPersonagens;
+import com.dcheroes.api.model.Personagem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização Jackson de listas de personagens, com o ObjectMapper configurado como no Spring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int tamanho;
+
+    private ObjectMapper objectMapper;
+    private List<Personagem> personagens;
+
+    @Setup
+    public void preparar() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        personagens = new ArrayList<>(tamanho);
+        for (int i = 1; i <= tamanho; i++) {
+            Personagem personagem = GeradorPersonagens.gerar(i);
+            personagem.setId((long) i);
+            personagens.add(personagem);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarLista() throws Exception {
+        return objectMapper.writeValueAsBytes(personagens);
+    }
+}
@@ -0,0 +1,58 @@
+package com.dcheroes.benchmarks;
+
+import com.dcheroes.api.config.GeradorPersonagens;
+import com.dcheroes.api.model.Personagem;
+import com.dcheroes.api.repository.PersonagemRepository;
+import com.dcheroes.api.service.PersonagemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminhos do serviço que passam por cache, eventos e transação: leitura por ID e atualização.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServicoBenchmark {
+
+    @Param({"10000", "100000"})
+    private long volume;
+
+    private ConfigurableApplicationContext contexto;
+    private PersonagemService service;
+    private SplittableRandom aleatorio;
+    private long quantidade;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws Exception {
+        contexto = ContextoBenchmark.iniciar(volume, Files.createTempDirectory("bench-uploads"));
+        service = contexto.getBean(PersonagemService.class);
+        quantidade = contexto.getBean(PersonagemRepository.class).count();
+        aleatorio = new SplittableRandom(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Optional<Personagem> buscarPorId() {
+        return service.buscarPorId(aleatorio.nextLong(1, quantidade + 1));
+    }
+
+    @Benchmark
+    public Personagem atualizar() {
+        long id = aleatorio.nextLong(1, quantidade + 1);
+        Personagem dados = GeradorPersonagens.gerar(aleatorio.nextLong(quantidade));
+        return service.atualizar(id, dados);
+    }
+}
@@ -0,0 +1,99 @@
+package com.dcheroes.benchmarks;
+
+import com.dcheroes.api.controller.UploadController;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upload de imagens de tamanhos diferentes chamando o controller direto, sem a camada HTTP,
+ * para isolar o parse do multipart, a validação e a escrita em disco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadBenchmark {
+
+    private static final String BOUNDARY = "----BenchmarkBoundary7MA4YWxkTrZu0gW";
+    private static final byte[] ASSINATURA_PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+
+    @Param({"102400", "1048576", "10485760"})
+    private int bytes;
+
+    private ConfigurableApplicationContext contexto;
+    private UploadController controller;
+    private Path diretorioUploads;
+    private byte[] corpo;
+    private int inicioArquivo;
+    private long contador;
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException {
+        diretorioUploads = Files.createTempDirectory("bench-uploads");
+        contexto = ContextoBenchmark.iniciar(0, diretorioUploads);
+        controller = contexto.getBean(UploadController.class);
+
+        byte[] conteudo = new byte[bytes];
+        new SplittableRandom(bytes).nextBytes(conteudo);
+        System.arraycopy(ASSINATURA_PNG, 0, conteudo, 0, ASSINATURA_PNG.length);
+
+        ByteArrayOutputStream multipart = new ByteArrayOutputStream(bytes + 512);
+        multipart.writeBytes(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"imagem.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        inicioArquivo = multipart.size();
+        multipart.writeBytes(conteudo);
+        multipart.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        corpo = multipart.toByteArray();
+    }
+
+    // Limpa os arquivos gravados a cada iteração para o disco não encher durante a medição
+    @TearDown(Level.Iteration)
+    public void limparUploads() throws IOException {
+        FileSystemUtils.deleteRecursively(diretorioUploads);
+        Files.createDirectories(diretorioUploads);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        contexto.close();
+        FileSystemUtils.deleteRecursively(diretorioUploads);
+    }
+
+    // Conteúdo inédito a cada chamada (um contador logo após a assinatura PNG): grava um arquivo novo
+    @Benchmark
+    public ResponseEntity<Map<String, String>> enviarImagem() {
+        long valor = ++contador;
+        for (int i = 0; i < Long.BYTES; i++) {
+            corpo[inicioArquivo + ASSINATURA_PNG.length + i] = (byte) (valor >>> (i * 8));
+        }
+        return controller.uploadImagem(requisicao());
+    }
+
+    // Mesmo conteúdo já armazenado: calcula o hash e descarta a cópia
+    @Benchmark
+    public ResponseEntity<Map<String, String>> reenviarImagem() {
+        return controller.uploadImagem(requisicao());
+    }
+
+    private MockHttpServletRequest requisicao() {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("POST", "/api/upload/imagem");
+        requisicao.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+        requisicao.setContent(corpo);
+        return requisicao;
+    }
+}
@@ -339,7 +339,7 @@ function App() {
                 <div className="h-48 bg-gray-200 relative">
                   {personagem.imagemUrl ? (
                     <img
-                      src={personagemService.getImagemUrl(personagem.imagemUrl)}
+                      src={personagemService.getImagemUrl(personagem.imagemUrl, 400)}
                       alt={personagem.nome}
                       className="w-full h-full object-cover"
                       onError={(e) => {
@@ -438,7 +438,7 @@ function App() {
                   {personagemSelecionado.imagemUrl && (
                     <div className="text-center">
                       <img
-                        src={personagemService.getImagemUrl(personagemSelecionado.imagemUrl)}
+                        src={personagemService.getImagemUrl(personagemSelecionado.imagemUrl, 150)}
                         alt={personagemSelecionado.nome}
                         className="w-32 h-32 object-cover rounded-lg mx-auto"
                       />
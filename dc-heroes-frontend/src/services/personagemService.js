@@ -170,14 +170,14 @@ export const personagemService = {
     }
   },
 
-  // Obter URL completa da imagem
-  getImagemUrl(imagemUrl) {
+  // Obter URL completa da imagem (largura opcional pede uma variante redimensionada)
+  getImagemUrl(imagemUrl, largura) {
     if (!imagemUrl) return null;
     if (imagemUrl.startsWith('http')) return imagemUrl;
     
     // Construir URL completa para imagens locais
     const baseUrl = 'http://localhost:8080';
-    return `${baseUrl}${imagemUrl}`;
+    return largura ? `${baseUrl}${imagemUrl}?w=${largura}` : `${baseUrl}${imagemUrl}`;
   },
 
   // Validar arquivo de imagem